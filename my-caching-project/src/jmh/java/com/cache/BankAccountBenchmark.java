@@ -0,0 +1,108 @@
+package com.cache;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Deposit/withdraw throughput under contention: 2 depositing and 2 withdrawing threads
+ * spread over `accounts` accounts (1 = every thread on the same account).
+ *
+ * impl=synchronized is BankAccount (monitor, notifyAll, println under the lock);
+ * impl=lockFree is LockFreeBankAccount (CAS, FIFO parking, AsyncAppender).
+ * Both log every operation; System.out is swapped for a discarding stream so the
+ * console does not set the pace. Deposits are larger than withdrawals, so withdrawers
+ * wait now and then but can always finish.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Group)
+public class BankAccountBenchmark {
+
+    @Param({"synchronized", "lockFree"})
+    public String impl;
+
+    @Param({"1", "16"})
+    public int accounts;
+
+    private BankAccount[] monitorAccounts;
+    private LockFreeBankAccount[] lockFreeAccounts;
+    private AsyncAppender log;
+    private PrintStream originalOut;
+
+    @Setup
+    public void setup() {
+        originalOut = System.out;
+        System.setOut(new PrintStream(new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+            }
+        }));
+        if (impl.equals("synchronized")) {
+            monitorAccounts = new BankAccount[accounts];
+            for (int i = 0; i < accounts; i++) {
+                monitorAccounts[i] = new BankAccount();
+            }
+        } else {
+            log = new AsyncAppender(1 << 16);
+            lockFreeAccounts = new LockFreeBankAccount[accounts];
+            for (int i = 0; i < accounts; i++) {
+                lockFreeAccounts[i] = new LockFreeBankAccount(log);
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (log != null) {
+            log.close();
+        }
+        System.setOut(originalOut);
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(2)
+    public void deposit(KeySequence.Cursor cursor) {
+        int account = cursor.next() % accounts;
+        if (monitorAccounts != null) {
+            monitorAccounts[account].deposit(3);
+        } else {
+            lockFreeAccounts[account].deposit(3);
+        }
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(2)
+    public void withdraw(KeySequence.Cursor cursor) {
+        int account = cursor.next() % accounts;
+        if (monitorAccounts != null) {
+            monitorAccounts[account].withdraw(2);
+        } else {
+            lockFreeAccounts[account].withdraw(2);
+        }
+    }
+}
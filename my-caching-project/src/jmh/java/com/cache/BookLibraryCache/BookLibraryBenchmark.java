@@ -0,0 +1,145 @@
+package com.cache.BookLibraryCache;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.cache.KeySequence;
+import com.cache.BookLibraryCache.BookLibrarySystem.BookLibrary;
+import com.cache.BookLibraryCache.BookLibrarySystem.BookLibrary.Book;
+
+/**
+ * Read/write throughput of BookLibrary with 3 reader threads and 1 writer sharing it.
+ *
+ * - read:  a book lookup plus a dashboard query (one author's book count)
+ * - write: one book removed and added back, so the catalog size stays constant
+ *
+ * library=snapshot is BookLibrary (lock-free reads of published snapshots);
+ * library=locked is the previous design made thread-safe the simple way: synchronized
+ * methods over ArrayList/HashSet/HashMap, with every query copying what it returns.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Group)
+public class BookLibraryBenchmark {
+
+    private static final int AUTHORS = 500;
+
+    @Param({"snapshot", "locked"})
+    public String library;
+
+    @Param({"10000"})
+    public int books;
+
+    private BookLibrary snapshotLibrary;
+    private LockedLibrary lockedLibrary;
+    private Book[] catalog;
+    private int[] keys;
+
+    @Setup
+    public void setup() {
+        catalog = new Book[books];
+        for (int i = 0; i < books; i++) {
+            catalog[i] = new Book(String.valueOf(i), "Title" + i, "Author" + (i % AUTHORS));
+        }
+        keys = KeySequence.generate("zipfian", books, 42);
+        if (library.equals("snapshot")) {
+            snapshotLibrary = new BookLibrary();
+            List<Book> all = new ArrayList<>(books);
+            for (Book book : catalog) {
+                all.add(book);
+            }
+            snapshotLibrary.addBooks(all);
+        } else {
+            lockedLibrary = new LockedLibrary();
+            for (Book book : catalog) {
+                lockedLibrary.addBook(book);
+            }
+        }
+    }
+
+    @Benchmark
+    @Group("readWrite")
+    @GroupThreads(3)
+    public Integer read(KeySequence.Cursor cursor) {
+        Book book = catalog[keys[cursor.next()]];
+        if (snapshotLibrary != null) {
+            snapshotLibrary.getBook(book.getIsbn());
+            return snapshotLibrary.getBookCountByAuthor().get(book.getAuthor());
+        }
+        lockedLibrary.getBook(book.getIsbn());
+        return lockedLibrary.getBookCountByAuthor().get(book.getAuthor());
+    }
+
+    @Benchmark
+    @Group("readWrite")
+    @GroupThreads(1)
+    public void write(KeySequence.Cursor cursor) {
+        Book book = catalog[cursor.next() % books];
+        if (snapshotLibrary != null) {
+            snapshotLibrary.removeBook(book.getIsbn());
+            snapshotLibrary.addBook(book);
+        } else {
+            lockedLibrary.removeBook(book.getIsbn());
+            lockedLibrary.addBook(book);
+        }
+    }
+
+    // The original BookLibrary with its methods synchronized
+    static final class LockedLibrary {
+        private final List<Book> books = new ArrayList<>();
+        private final Set<String> authors = new HashSet<>();
+        private final Map<String, Integer> bookCountByAuthor = new HashMap<>();
+        private final Map<String, Book> booksByIsbn = new HashMap<>();
+
+        synchronized void addBook(Book book) {
+            books.add(book);
+            authors.add(book.getAuthor());
+            bookCountByAuthor.put(book.getAuthor(), bookCountByAuthor.getOrDefault(book.getAuthor(), 0) + 1);
+            booksByIsbn.put(book.getIsbn(), book);
+        }
+
+        synchronized void removeBook(String isbn) {
+            Book book = booksByIsbn.remove(isbn);
+            if (book != null) {
+                books.remove(book);
+                int count = bookCountByAuthor.get(book.getAuthor()) - 1;
+                if (count == 0) {
+                    bookCountByAuthor.remove(book.getAuthor());
+                    authors.remove(book.getAuthor());
+                } else {
+                    bookCountByAuthor.put(book.getAuthor(), count);
+                }
+            }
+        }
+
+        synchronized Book getBook(String isbn) {
+            return booksByIsbn.get(isbn);
+        }
+
+        synchronized Map<String, Integer> getBookCountByAuthor() {
+            return new HashMap<>(bookCountByAuthor);
+        }
+    }
+}
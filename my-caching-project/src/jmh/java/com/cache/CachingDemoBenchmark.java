@@ -0,0 +1,75 @@
+package com.cache;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Read-through throughput of the CachingDemo strategies over CachingDemo's 1000-row
+ * database. The simple, LRU, two-level and int CLOCK caches are static and not
+ * thread-safe, so they run with one thread; ThreadScaling skips them.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CachingDemoBenchmark {
+
+    @Param({"uniform", "zipfian", "scan"})
+    public String distribution;
+
+    private int[] keys;
+
+    @Setup
+    public void setup() {
+        CachingDemo.populateDatabase();
+        keys = KeySequence.generate(distribution, 1000, 42);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String simpleCache(KeySequence.Cursor cursor) {
+        return CachingDemo.getWithSimpleCache(keys[cursor.next()]);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String lruCache(KeySequence.Cursor cursor) {
+        return CachingDemo.getWithLRUCache(keys[cursor.next()]);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String twoLevelCache(KeySequence.Cursor cursor) {
+        return CachingDemo.getWithTwoLevelCache(keys[cursor.next()]);
+    }
+
+    @Benchmark
+    public String concurrentCache(KeySequence.Cursor cursor) {
+        return CachingDemo.getWithConcurrentCache(keys[cursor.next()]);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String intClockCache(KeySequence.Cursor cursor) {
+        return CachingDemo.getWithIntClockCache(keys[cursor.next()]);
+    }
+
+    @Benchmark
+    public String concurrentIntCache(KeySequence.Cursor cursor) {
+        return CachingDemo.getWithConcurrentIntCache(keys[cursor.next()]);
+    }
+}
@@ -0,0 +1,97 @@
+package com.cache.DocumentCache;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.cache.BenchmarkFiles;
+import com.cache.KeySequence;
+import com.cache.DocumentCache.DetailDocumentCache.Document;
+
+/**
+ * get/put/mixed throughput of DetailDocumentCache. The document set is four times the
+ * cache size, so gets include disk reads and puts include disk writes.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DetailDocumentCacheBenchmark {
+
+    @Param({"100", "1000"})
+    public int cacheSize;
+
+    @Param({"uniform", "zipfian", "scan"})
+    public String distribution;
+
+    @Param({"sync", "write-behind"})
+    public String writeMode;
+
+    private Path storageDir;
+    private DetailDocumentCache cache;
+    private String[] ids;
+    private Document[] documents;
+
+    @Setup
+    public void setup() throws IOException {
+        storageDir = BenchmarkFiles.createTempDirectory("document-cache-bench");
+        cache = new DetailDocumentCache(cacheSize, storageDir.toString());
+        if (writeMode.equals("write-behind")) {
+            cache.enableWriteBehind(10_000, 100, DocumentWriteBehind.FsyncPolicy.NEVER);
+        }
+
+        int documentCount = cacheSize * 4;
+        ids = KeySequence.toStrings("Document", KeySequence.generate(distribution, documentCount, 42));
+        documents = new Document[ids.length];
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < ids.length; i++) {
+            documents[i] = new Document(ids[i], "Content for " + ids[i], now, now);
+        }
+        for (int i = 0; i < documentCount; i++) {
+            String id = "Document" + i;
+            cache.saveDocument(new Document(id, "Content for " + id, now, now));
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        cache.close();
+        BenchmarkFiles.deleteRecursively(storageDir);
+    }
+
+    @Benchmark
+    public Document get(KeySequence.Cursor cursor) throws IOException, ClassNotFoundException {
+        return cache.getDocument(ids[cursor.next()]);
+    }
+
+    @Benchmark
+    public void put(KeySequence.Cursor cursor) throws IOException {
+        cache.saveDocument(documents[cursor.next()]);
+    }
+
+    // 90% reads, 10% saves
+    @Benchmark
+    public Document mixed(KeySequence.Cursor cursor) throws IOException, ClassNotFoundException {
+        int i = cursor.next();
+        if (i % 10 == 0) {
+            cache.saveDocument(documents[i]);
+            return documents[i];
+        }
+        return cache.getDocument(ids[i]);
+    }
+}
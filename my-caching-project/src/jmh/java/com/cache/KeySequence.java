@@ -0,0 +1,115 @@
+package com.cache;
+
+import java.util.Random;
+
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Pre-generated key streams shared by the benchmarks, so key generation is not part of
+ * the measured work.
+ *
+ * Distributions:
+ * - uniform: every key in the key space is equally likely
+ * - zipfian: a few keys get most of the traffic (exponent 0.99, like YCSB)
+ * - scan:    sequential pass over the key space, the worst case for LRU
+ */
+public final class KeySequence {
+
+    // Length of each generated stream (power of two so the cursor can mask)
+    public static final int LENGTH = 1 << 16;
+    public static final int MASK = LENGTH - 1;
+
+    private KeySequence() {
+    }
+
+    public static int[] generate(String distribution, int keySpace, long seed) {
+        Random random = new Random(seed);
+        int[] keys = new int[LENGTH];
+        switch (distribution) {
+            case "uniform":
+                for (int i = 0; i < LENGTH; i++) {
+                    keys[i] = random.nextInt(keySpace);
+                }
+                break;
+            case "zipfian":
+                double[] cdf = zipfCdf(keySpace, 0.99);
+                for (int i = 0; i < LENGTH; i++) {
+                    keys[i] = search(cdf, random.nextDouble());
+                }
+                // Spread the hot keys over the key space instead of clustering them at 0
+                for (int i = 0; i < LENGTH; i++) {
+                    keys[i] = (int) ((keys[i] * 2654435761L) % keySpace);
+                }
+                break;
+            case "scan":
+                for (int i = 0; i < LENGTH; i++) {
+                    keys[i] = i % keySpace;
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown distribution: " + distribution);
+        }
+        return keys;
+    }
+
+    public static String[] toStrings(String prefix, int[] keys) {
+        String[] result = new String[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            result[i] = prefix + keys[i];
+        }
+        return result;
+    }
+
+    public static Integer[] box(int[] keys) {
+        Integer[] result = new Integer[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            result[i] = keys[i];
+        }
+        return result;
+    }
+
+    private static double[] zipfCdf(int keySpace, double exponent) {
+        double[] cdf = new double[keySpace];
+        double sum = 0;
+        for (int i = 0; i < keySpace; i++) {
+            sum += 1.0 / Math.pow(i + 1, exponent);
+            cdf[i] = sum;
+        }
+        for (int i = 0; i < keySpace; i++) {
+            cdf[i] /= sum;
+        }
+        return cdf;
+    }
+
+    private static int search(double[] cdf, double value) {
+        int low = 0;
+        int high = cdf.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (cdf[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Per-thread position in a key stream. Each thread starts at a different offset so
+     * threads do not walk the stream in lock step.
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int index;
+
+        public Cursor() {
+            this.index = (int) (Thread.currentThread().getId() * 7919) & MASK;
+        }
+
+        public int next() {
+            return index++ & MASK;
+        }
+    }
+}
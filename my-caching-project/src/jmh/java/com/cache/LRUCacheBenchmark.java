@@ -0,0 +1,96 @@
+package com.cache;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * get/put/mixed throughput of the LRU caches. MyLRUCache is not thread-safe, so it is
+ * shared between threads through Collections.synchronizedMap - the global lock the
+ * ConcurrentLRUCache is meant to replace.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LRUCacheBenchmark {
+
+    @Param({"MyLRUCache", "MyLRUCache-TinyLFU", "ConcurrentLRUCache"})
+    public String cache;
+
+    @Param({"1000", "100000"})
+    public int cacheSize;
+
+    @Param({"uniform", "zipfian", "scan"})
+    public String distribution;
+
+    private Map<Integer, String> lockedCache;
+    private ConcurrentLRUCache<Integer, String> concurrentCache;
+    private Integer[] keys;
+
+    @Setup
+    public void setup() {
+        // Key space is twice the capacity so a uniform workload hits about half the time
+        keys = KeySequence.box(KeySequence.generate(distribution, cacheSize * 2, 42));
+        switch (cache) {
+            case "MyLRUCache":
+                lockedCache = Collections.synchronizedMap(new MyLRUCache<Integer, String>(cacheSize));
+                break;
+            case "MyLRUCache-TinyLFU":
+                lockedCache = Collections.synchronizedMap(new MyLRUCache<Integer, String>(cacheSize, true));
+                break;
+            case "ConcurrentLRUCache":
+                concurrentCache = new ConcurrentLRUCache<>(cacheSize);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown cache: " + cache);
+        }
+        for (int i = 0; i < cacheSize; i++) {
+            put(i, "Value" + i);
+        }
+    }
+
+    @Benchmark
+    public String get(KeySequence.Cursor cursor) {
+        return get(keys[cursor.next()]);
+    }
+
+    @Benchmark
+    public String put(KeySequence.Cursor cursor) {
+        return put(keys[cursor.next()], "Value");
+    }
+
+    // Read-through: a miss is followed by a put, as in CachingDemo.getWithLRUCache
+    @Benchmark
+    public String mixed(KeySequence.Cursor cursor) {
+        Integer key = keys[cursor.next()];
+        String value = get(key);
+        if (value == null) {
+            value = "Value";
+            put(key, value);
+        }
+        return value;
+    }
+
+    private String get(Integer key) {
+        return concurrentCache != null ? concurrentCache.get(key) : lockedCache.get(key);
+    }
+
+    private String put(Integer key, String value) {
+        return concurrentCache != null ? concurrentCache.put(key, value) : lockedCache.put(key, value);
+    }
+}
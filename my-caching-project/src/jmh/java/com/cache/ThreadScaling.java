@@ -0,0 +1,42 @@
+package com.cache;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the thread-safe benchmarks at 1, 2, 4 and 8 threads (or the counts given as
+ * arguments), e.g.
+ *
+ *   java -cp target/benchmarks.jar com.cache.ThreadScaling 1 4 16
+ *
+ * The single-threaded CachingDemo strategies are skipped because they share static,
+ * non-thread-safe caches. To run one benchmark at one thread count use the regular
+ * JMH command line:
+ *
+ *   java -jar target/benchmarks.jar LRUCacheBenchmark -t 4
+ */
+public class ThreadScaling {
+
+    public static void main(String[] args) throws RunnerException {
+        int[] threadCounts = {1, 2, 4, 8};
+        if (args.length > 0) {
+            threadCounts = new int[args.length];
+            for (int i = 0; i < args.length; i++) {
+                threadCounts[i] = Integer.parseInt(args[i]);
+            }
+        }
+        for (int threads : threadCounts) {
+            Options options = new OptionsBuilder()
+                .include("com\\.cache\\..*Benchmark")
+                .exclude("CachingDemoBenchmark\\.(simpleCache|lruCache|twoLevelCache|intClockCache)")
+                .threads(threads)
+                .result("jmh-threads-" + threads + ".json")
+                .resultFormat(ResultFormatType.JSON)
+                .build();
+            new Runner(options).run();
+        }
+    }
+}
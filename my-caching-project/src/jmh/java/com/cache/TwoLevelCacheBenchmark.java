@@ -0,0 +1,75 @@
+package com.cache;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * get/put/mixed throughput of TwoLevelCache. All benchmark threads share one cache, so
+ * runs with -t N measure contention on its lock.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TwoLevelCacheBenchmark {
+
+    @Param({"10", "1000"})
+    public int l1Size;
+
+    @Param({"uniform", "zipfian", "scan"})
+    public String distribution;
+
+    private TwoLevelCache cache;
+    private String[] keys;
+    private Product[] products;
+
+    @Setup
+    public void setup() {
+        int l2Size = l1Size * 10;
+        int[] ids = KeySequence.generate(distribution, l2Size * 2, 42);
+        keys = KeySequence.toStrings("", ids);
+        products = new Product[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            products[i] = new Product("Product" + ids[i]);
+        }
+        cache = new TwoLevelCache(l1Size, l2Size);
+        for (int i = 0; i < l2Size; i++) {
+            cache.put(String.valueOf(i), new Product("Product" + i));
+        }
+    }
+
+    @Benchmark
+    public Product get(KeySequence.Cursor cursor) {
+        return cache.get(keys[cursor.next()]);
+    }
+
+    @Benchmark
+    public void put(KeySequence.Cursor cursor) {
+        int i = cursor.next();
+        cache.put(keys[i], products[i]);
+    }
+
+    @Benchmark
+    public Product mixed(KeySequence.Cursor cursor) {
+        int i = cursor.next();
+        Product product = cache.get(keys[i]);
+        if (product == null) {
+            product = products[i];
+            cache.put(keys[i], product);
+        }
+        return product;
+    }
+}
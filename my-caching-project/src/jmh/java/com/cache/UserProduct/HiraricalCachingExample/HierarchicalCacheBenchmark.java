@@ -0,0 +1,111 @@
+package com.cache.UserProduct.HiraricalCachingExample;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.cache.BenchmarkFiles;
+import com.cache.KeySequence;
+import com.cache.codec.Codec;
+import com.cache.codec.JavaSerializationCodec;
+
+/**
+ * get/put/mixed throughput of HierarchicalCache. L2 is ten times L1 and the product set
+ * is ten times L2, so lookups spread over L1, L2 and the on-disk L3.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HierarchicalCacheBenchmark {
+
+    @Param({"100", "1000"})
+    public int l1Size;
+
+    @Param({"uniform", "zipfian", "scan"})
+    public String distribution;
+
+    // L3 layout: one file per key, or the bounded segment store (budget larger than the product set)
+    @Param({"files", "bounded"})
+    public String l3;
+
+    // L3 file format: java (the default) or binary (ProductCodec)
+    @Param({"java", "binary"})
+    public String codec;
+
+    private Path l3Dir;
+    private HierarchicalCache cache;
+    private String[] ids;
+    private Product[] products;
+
+    @Setup
+    public void setup() throws IOException {
+        int l2Size = l1Size * 10;
+        int productCount = l2Size * 10;
+        l3Dir = BenchmarkFiles.createTempDirectory("hierarchical-cache-bench");
+        Codec<Product> productCodec = codec.equals("binary")
+            ? new ProductCodec() : new JavaSerializationCodec<>(Product.class);
+        cache = l3.equals("bounded")
+            ? new HierarchicalCache(l1Size, l2Size, l3Dir.toString(), productCodec, 256L * 1024 * 1024, 0)
+            : new HierarchicalCache(l1Size, l2Size, l3Dir.toString(), productCodec);
+
+        ids = KeySequence.toStrings("PROD", KeySequence.generate(distribution, productCount, 42));
+        products = new Product[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            products[i] = DataGenerator.geneProduct(ids[i]);
+        }
+        for (int i = 0; i < productCount; i++) {
+            String id = "PROD" + i;
+            cache.put(id, DataGenerator.geneProduct(id));
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        cache.close();
+        BenchmarkFiles.deleteRecursively(l3Dir);
+    }
+
+    @Benchmark
+    public Product get(KeySequence.Cursor cursor) throws IOException, ClassNotFoundException {
+        return cache.get(ids[cursor.next()]);
+    }
+
+    // L3 misses are handed to the I/O pool; join() only to measure end-to-end latency
+    @Benchmark
+    public Product getAsync(KeySequence.Cursor cursor) {
+        return cache.getAsync(ids[cursor.next()]).join();
+    }
+
+    @Benchmark
+    public void put(KeySequence.Cursor cursor) throws IOException {
+        int i = cursor.next();
+        cache.put(ids[i], products[i]);
+    }
+
+    // 90% reads, 10% writes
+    @Benchmark
+    public Product mixed(KeySequence.Cursor cursor) throws IOException, ClassNotFoundException {
+        int i = cursor.next();
+        if (i % 10 == 0) {
+            cache.put(ids[i], products[i]);
+            return products[i];
+        }
+        return cache.get(ids[i]);
+    }
+}
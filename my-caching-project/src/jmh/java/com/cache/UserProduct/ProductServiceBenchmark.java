@@ -0,0 +1,70 @@
+package com.cache.UserProduct;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.cache.KeySequence;
+
+/**
+ * Hit-path throughput of the Guava-backed ProductService. A miss costs the simulated
+ * 100ms database call, which would swamp the measurement, so every product fits in the
+ * cache and is loaded before the benchmark starts. Guava splits maximumSize across its
+ * segments, so the cache gets twice the product count to avoid uneven segment evictions.
+ * ProductService only exposes reads, so there is no put/mixed variant.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProductServiceBenchmark {
+
+    @Param({"100", "1000"})
+    public int numProducts;
+
+    @Param({"uniform", "zipfian", "scan"})
+    public String distribution;
+
+    private ProductService service;
+    private String[] ids;
+
+    @Setup
+    public void setup() throws Exception {
+        service = new ProductService(numProducts, numProducts * 2);
+        ids = KeySequence.toStrings("PROD", KeySequence.generate(distribution, numProducts, 42));
+
+        // Load every product in parallel so warm-up does not take numProducts * 100ms
+        ExecutorService loaders = Executors.newFixedThreadPool(100);
+        for (int i = 0; i < numProducts; i++) {
+            final String id = "PROD" + i;
+            loaders.execute(() -> {
+                try {
+                    service.getProduct(id);
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+            });
+        }
+        loaders.shutdown();
+        loaders.awaitTermination(5, TimeUnit.MINUTES);
+    }
+
+    @Benchmark
+    public Product get(KeySequence.Cursor cursor) throws Exception {
+        return service.getProduct(ids[cursor.next()]);
+    }
+}
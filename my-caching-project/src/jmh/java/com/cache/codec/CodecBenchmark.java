@@ -0,0 +1,88 @@
+package com.cache.codec;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.cache.DocumentCache.DetailDocumentCache.Document;
+import com.cache.DocumentCache.DocumentCodec;
+import com.cache.UserProduct.HiraricalCachingExample.Product;
+import com.cache.UserProduct.HiraricalCachingExample.ProductCodec;
+
+/**
+ * Encode/decode throughput of the disk-tier codecs: Java serialization (the old format)
+ * against the hand-rolled binary codecs. Bytes per entry for each format are printed
+ * once per fork during setup.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CodecBenchmark {
+
+    @Param({"java", "binary"})
+    public String format;
+
+    private Codec<Product> productCodec;
+    private Codec<Document> documentCodec;
+    private Product product;
+    private Document document;
+    private byte[] encodedProduct;
+    private byte[] encodedDocument;
+
+    @Setup
+    public void setup() throws IOException {
+        if (format.equals("java")) {
+            productCodec = new JavaSerializationCodec<>(Product.class);
+            documentCodec = new JavaSerializationCodec<>(Document.class);
+        } else {
+            productCodec = new ProductCodec();
+            documentCodec = new DocumentCodec();
+        }
+        product = new Product("PROD12345", "ProductPROD12345", 499.99);
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 20; i++) {
+            content.append("Content line ").append(i).append(" for Document12345. ");
+        }
+        long now = System.currentTimeMillis();
+        document = new Document("Document12345", content.toString(), now, now);
+
+        encodedProduct = productCodec.encode(product);
+        encodedDocument = documentCodec.encode(document);
+        System.out.println("Bytes per entry (" + format + "): Product " + encodedProduct.length
+            + ", Document " + encodedDocument.length);
+    }
+
+    @Benchmark
+    public byte[] encodeProduct() throws IOException {
+        return productCodec.encode(product);
+    }
+
+    @Benchmark
+    public Product decodeProduct() throws IOException {
+        return productCodec.decode(encodedProduct);
+    }
+
+    @Benchmark
+    public byte[] encodeDocument() throws IOException {
+        return documentCodec.encode(document);
+    }
+
+    @Benchmark
+    public Document decodeDocument() throws IOException {
+        return documentCodec.decode(encodedDocument);
+    }
+}
@@ -0,0 +1,87 @@
+package com.cache;
+
+import java.io.Closeable;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Log lines handed to a background thread, so callers never do console I/O (or wait on
+ * the PrintStream's lock) themselves. append() only enqueues; when the queue is full the
+ * line is dropped and counted rather than blocking the caller.
+ *
+ * Lines reach the output in the order they were appended by each thread. close() writes
+ * out whatever is still queued.
+ */
+class AsyncAppender implements Closeable {
+
+    private static final String POISON = new String("close");
+
+    private final BlockingQueue<String> queue;
+    private final PrintStream out;
+    private final Thread writer;
+    private final LongAdder dropped = new LongAdder();
+    private volatile boolean closed;
+
+    AsyncAppender(int capacity) {
+        this(capacity, null);
+    }
+
+    // out == null: write to whatever System.out is at the time
+    AsyncAppender(int capacity, PrintStream out) {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.out = out;
+        this.writer = new Thread(this::drain, "async-appender");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    void append(String line) {
+        if (closed || !queue.offer(line)) {
+            dropped.increment();
+        }
+    }
+
+    long dropped() {
+        return dropped.sum();
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            queue.put(POISON);
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void drain() {
+        List<String> batch = new ArrayList<>();
+        try {
+            while (true) {
+                batch.add(queue.take());
+                queue.drainTo(batch);
+                PrintStream target = out != null ? out : System.out;
+                for (String line : batch) {
+                    if (line == POISON) {
+                        target.flush();
+                        return;
+                    }
+                    target.println(line);
+                }
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            // Daemon thread: just stop
+        }
+    }
+}
@@ -66,6 +66,39 @@ public class BankDemo {
 
         depositThread.start();
         withdrawThread.start();
+        depositThread.join();
+        withdrawThread.join();
+
+        // Same run against the lock-free account: no monitor, logging on a background thread
+        System.out.println("Lock-free account");
+        AsyncAppender log = new AsyncAppender(1024);
+        LockFreeBankAccount lockFree = new LockFreeBankAccount(log);
+        Thread lockFreeDeposits = new Thread(() -> {
+            for(int i=0;i<5;i++){
+                lockFree.deposit(100);
+                try{
+                    Thread.sleep(100);
+                }catch(InterruptedException e){
+                    e.printStackTrace();
+                }
+            }
+        },"Lock-free Deposit Thread");
+        Thread lockFreeWithdrawals = new Thread(() -> {
+            for(int i=0;i<5;i++){
+                lockFree.withdraw(80);
+                try{
+                    Thread.sleep(100);
+                }catch(InterruptedException e){
+                    e.printStackTrace();
+                }
+            }
+        },"Lock-free Withdraw Thread");
+        lockFreeWithdrawals.start();
+        lockFreeDeposits.start();
+        lockFreeDeposits.join();
+        lockFreeWithdrawals.join();
+        log.close();
+        System.out.println("Final Balance: "+lockFree.getBalance());
 
     
         // try{
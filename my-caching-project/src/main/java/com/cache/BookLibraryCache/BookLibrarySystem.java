@@ -1,15 +1,21 @@
 package com.cache.BookLibraryCache;
 
 import java.io.Serializable;
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Map;
+import java.util.Random;
+import java.util.RandomAccess;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.List;
 
 public class BookLibrarySystem {
@@ -30,60 +36,255 @@ public class BookLibrarySystem {
         System.out.println(bookLibrary.getAuthors());
         System.out.println(bookLibrary.getBookCountByAuthor());
 
+        // A snapshot keeps showing the library as it was when taken
+        BookLibrary.Snapshot before = bookLibrary.snapshot();
+        bookLibrary.removeBook("106");
+        System.out.println("Version " + before.getVersion() + ": " + before.getBookCountByAuthor().get("William Shakespeare")
+            + " Shakespeare books, version " + bookLibrary.snapshot().getVersion() + ": "
+            + bookLibrary.getBookCountByAuthor().get("William Shakespeare"));
+
+        // Simulated reads: Harry Potter is read most, then 1984, then the rest now and then
+        Random random = new Random(7);
+        String[] isbns = {"123", "456", "789", "101", "102", "103", "104", "105"};
+        for(int i = 0; i < 10000; i++){
+            double pick = random.nextDouble();
+            bookLibrary.getBook(pick < 0.4 ? "123" : pick < 0.6 ? "789" : isbns[random.nextInt(isbns.length)]);
+        }
+
         Future<BookLibrary.Book> futureMostPopularBook = bookLibrary.getMostPopularBookAsync();
         try{
             BookLibrary.Book mostPopularBook = futureMostPopularBook.get();
             System.out.println("Most Popular book: " + mostPopularBook.toString());
+            System.out.println("Top 3: " + bookLibrary.getTopBooks(3));
         }catch(InterruptedException | ExecutionException e){
             e.printStackTrace();
         
-        }finally{
-            bookLibrary.executorService.shutdown();
         }
 
-        System.out.println("Program continues while waiting for the most popular book");
+        // The future was already complete: it is answered straight from the popularity tracker
+        System.out.println("Program continues after the most popular book lookup");
     }
 
+    // Reads never copy and never lock: every write publishes a new immutable Snapshot
+    // (books, authors and per-author counts, plus a version number), and readers just
+    // take the current one. The parts a write does not change are shared with the
+    // previous snapshot:
+    // - books is an append-only array; a snapshot sees only the first size entries, so
+    //   an add writes one slot (and occasionally grows the array) instead of copying.
+    //   A remove copies the array, since older snapshots still show the removed book.
+    // - the per-author counts are updated incrementally on add/remove and republished
+    //   as a new map, O(authors) rather than a recount over all books.
+    // Writers are serialized by the library's monitor; bulk imports should go through
+    // addBooks, which publishes one snapshot (and copies the counts once) per batch.
+    // Safe for any number of reader and writer threads.
     static class BookLibrary{
-        private List<Book> books = new ArrayList<>();
-        private Set<String> authors = new HashSet<>();
-        private Map<String, Integer> bookCountByAuthor = new HashMap<>();
-        private ExecutorService executorService = Executors.newSingleThreadExecutor();
+        private Book[] books = new Book[16];
+        private volatile Snapshot snapshot = Snapshot.EMPTY;
+        // Lookup by isbn for getBook and the popularity queries; written under the monitor
+        private final ConcurrentHashMap<String, Book> booksByIsbn = new ConcurrentHashMap<>();
+        // isbn -> number of copies beyond the first, only for isbns added more than once. Guarded by this
+        private final Map<String, Integer> extraCopies = new HashMap<>();
+        // Accesses per book: top 32 tracked, 4 x 4096 counters, halved every hour
+        private final BookPopularity popularity =
+            new BookPopularity(32, 4096, 4, TimeUnit.HOURS.toMillis(1), System::currentTimeMillis);
         
         BookLibrary(){
-            books = new ArrayList<>();
-            authors = new HashSet<>();
-            bookCountByAuthor = new HashMap<>();
-            executorService = Executors.newSingleThreadExecutor();
         }
         
         public void addBook(Book book){
-            books.add(book);
-            authors.add(book.author);
-            bookCountByAuthor.put(book.author, bookCountByAuthor.getOrDefault(book.author, 0) + 1);
+            addBooks(Collections.singletonList(book));
+        }
+
+        // Adds all the books as one write: a snapshot has none of them or all of them. A null
+        // book or isbn rejects the whole batch before anything changes
+        public synchronized void addBooks(Collection<? extends Book> added){
+            if(added.isEmpty()){
+                return;
+            }
+            for(Book book : added){
+                if(book == null || book.isbn == null){
+                    throw new IllegalArgumentException("Cannot add a null book or a book without an isbn");
+                }
+            }
+            Snapshot current = snapshot;
+            int size = current.books.size();
+            int newSize = size + added.size();
+            if(newSize > books.length){
+                books = Arrays.copyOf(books, Math.max(newSize, books.length * 2));
+            }
+            Map<String, Integer> counts = new HashMap<>(current.bookCountByAuthor);
+            for(Book book : added){
+                // Slots past the current size are invisible to every snapshot until publish
+                books[size++] = book;
+                counts.merge(book.author, 1, Integer::sum);
+            }
+            publish(current, new BookList(books, newSize), counts);
+            // Index only once the books are in the library
+            for(Book book : added){
+                if(booksByIsbn.put(book.isbn, book) != null){
+                    extraCopies.merge(book.isbn, 1, Integer::sum);
+                }
+            }
+        }
+
+        // Removes the book getBook(isbn) returns (the last one added with this isbn); false if there is none
+        public synchronized boolean removeBook(String isbn){
+            Book book = booksByIsbn.get(isbn);
+            if(book == null){
+                return false;
+            }
+            Snapshot current = snapshot;
+            int size = current.books.size();
+            // Identity search, newest first
+            int i = size - 1;
+            while(books[i] != book){
+                i--;
+            }
+            // Older snapshots share the array, so build a new one without the book
+            Book[] remaining = new Book[Math.max(16, books.length)];
+            System.arraycopy(books, 0, remaining, 0, i);
+            System.arraycopy(books, i + 1, remaining, i, size - i - 1);
+            books = remaining;
+            removeFromIndex(book, size - 1);
+            Map<String, Integer> counts = new HashMap<>(current.bookCountByAuthor);
+            if(counts.merge(book.author, -1, Integer::sum) == 0){
+                counts.remove(book.author);
+            }
+            publish(current, new BookList(books, size - 1), counts);
+            return true;
         }
 
+        // The current state of the library; never changes once returned
+        public Snapshot snapshot(){
+            return snapshot;
+        }
+
+        // Read-only views of the current snapshot: O(1), nothing is copied
         public List<Book> getAllBooks(){
-            return new ArrayList<>(books);
+            return snapshot.books;
         }
 
         public Set<String> getAuthors(){
-            return new HashSet<>(authors);
+            return snapshot.authors;
         }
 
         public Map<String, Integer> getBookCountByAuthor(){
-            return new HashMap<>(bookCountByAuthor);
+            return snapshot.bookCountByAuthor;
+        }
+
+        // The book with this isbn, counted as an access for popularity; null if there is none
+        public Book getBook(String isbn){
+            Book book = booksByIsbn.get(isbn);
+            if(book != null){
+                popularity.record(isbn);
+            }
+            return book;
         }
 
+        // Answered straight from the popularity tracker; kept for callers written against the async API
         public Future<Book> getMostPopularBookAsync(){
-            return executorService.submit(() -> {
-                Thread.sleep(2000);
-                return books.isEmpty() ? null : getMostPopularBook();
-            });
+            return CompletableFuture.completedFuture(getMostPopularBook());
+        }
+
+        // Most accessed book recently (accesses halve in weight every hour), or null before any access
+        public Book getMostPopularBook(){
+            List<Book> top = getTopBooks(1);
+            return top.isEmpty() ? null : top.get(0);
+        }
+
+        // Up to k most accessed books, most popular first (k of at most 32)
+        public List<Book> getTopBooks(int k){
+            List<Book> top = new ArrayList<>(k);
+            for(String isbn : popularity.topKeys(k)){
+                Book book = booksByIsbn.get(isbn);
+                if(book != null){
+                    top.add(book);
+                }
+            }
+            return top;
+        }
+
+        // Must hold this. If another copy of the isbn remains in the first size books, index the newest one instead
+        private void removeFromIndex(Book removed, int size){
+            Integer extra = extraCopies.get(removed.isbn);
+            if(extra == null){
+                booksByIsbn.remove(removed.isbn);
+                popularity.forget(removed.isbn);
+                return;
+            }
+            if(extra == 1){
+                extraCopies.remove(removed.isbn);
+            }else{
+                extraCopies.put(removed.isbn, extra - 1);
+            }
+            for(int i = size - 1; i >= 0; i--){
+                if(books[i].isbn.equals(removed.isbn)){
+                    booksByIsbn.put(removed.isbn, books[i]);
+                    return;
+                }
+            }
         }
 
-        private Book getMostPopularBook(){
-            return books.get(0);
+        // Must hold this
+        private void publish(Snapshot current, BookList books, Map<String, Integer> counts){
+            snapshot = new Snapshot(current.version + 1, books, Collections.unmodifiableMap(counts));
+        }
+
+        static final class Snapshot{
+            static final Snapshot EMPTY = new Snapshot(0, new BookList(new Book[0], 0), Collections.emptyMap());
+
+            private final long version;
+            private final List<Book> books;
+            private final Set<String> authors;
+            private final Map<String, Integer> bookCountByAuthor;
+
+            private Snapshot(long version, List<Book> books, Map<String, Integer> bookCountByAuthor){
+                this.version = version;
+                this.books = books;
+                this.authors = bookCountByAuthor.keySet();
+                this.bookCountByAuthor = bookCountByAuthor;
+            }
+
+            public long getVersion(){
+                return version;
+            }
+
+            public List<Book> getBooks(){
+                return books;
+            }
+
+            public Set<String> getAuthors(){
+                return authors;
+            }
+
+            public Map<String, Integer> getBookCountByAuthor(){
+                return bookCountByAuthor;
+            }
+        }
+
+        // Read-only view of the first size slots of a shared array. Later adds only write
+        // slots past size, so the view never changes
+        private static final class BookList extends AbstractList<Book> implements RandomAccess{
+            private final Book[] books;
+            private final int size;
+
+            BookList(Book[] books, int size){
+                this.books = books;
+                this.size = size;
+            }
+
+            @Override
+            public Book get(int index){
+                if(index < 0 || index >= size){
+                    throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+                }
+                return books[index];
+            }
+
+            @Override
+            public int size(){
+                return size;
+            }
         }
 
         static class Book implements Serializable{
@@ -98,6 +299,18 @@ public class BookLibrarySystem {
                 this.author = author;
             }
 
+            public String getIsbn(){
+                return isbn;
+            }
+
+            public String getTitle(){
+                return title;
+            }
+
+            public String getAuthor(){
+                return author;
+            }
+
             @Override
             public String toString(){
                 return "Book{" + "isbn='" + isbn + '\'' + ", title='" + title + '\'' + ", author='" + author + '\'' + '}';
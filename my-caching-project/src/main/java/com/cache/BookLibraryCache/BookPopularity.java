@@ -0,0 +1,219 @@
+package com.cache.BookLibraryCache;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Approximate access counts per book, in fixed memory, with the most accessed books
+ * always at hand.
+ *
+ * - A count-min sketch (depth rows of width counters, conservative update) estimates how
+ *   often any key was accessed. Estimates never undercount; they overcount by at most
+ *   about 2/width of all accesses with high probability.
+ * - A heavy-hitter table keeps the capacity keys with the highest estimates. A key that
+ *   is not in the table replaces the lowest entry once its estimate passes it, so the
+ *   table converges on the real top keys without a counter per book.
+ * - Every decayIntervalMillis all counts are halved, so popularity reflects recent
+ *   accesses: an access counts half as much after one interval, a quarter after two.
+ *
+ * Thread-safe. Everything runs under one lock and is O(depth), except when the table's
+ * lowest entry changes (O(capacity)) and the decay itself (O(depth * width)). So that
+ * readers of a busy library do not queue on that lock, record() skips the access when
+ * another thread holds it. Skips do not depend on which book was read, so the counts
+ * become a sample and the ranking is unaffected.
+ */
+class BookPopularity {
+
+    private final long[][] sketch;
+    private final int widthMask;
+    private final int capacity;
+    private final long decayIntervalMillis;
+    private final LongSupplier clock;
+
+    private final Map<String, Long> heavyHitters;
+    private String minKey;
+    private long minCount;
+    private long lastDecay;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LongAdder skipped = new LongAdder();
+    private final ConcurrentLinkedQueue<String> forgotten = new ConcurrentLinkedQueue<>();
+
+    /**
+     * @param capacity            heavy hitters tracked, the largest k topKeys can answer
+     * @param width               counters per sketch row, rounded up to a power of two
+     * @param depth               sketch rows (independent hashes)
+     * @param decayIntervalMillis counts halve this often, 0 for no decay
+     */
+    BookPopularity(int capacity, int width, int depth, long decayIntervalMillis, LongSupplier clock) {
+        if (capacity <= 0 || width <= 0 || depth <= 0 || decayIntervalMillis < 0) {
+            throw new IllegalArgumentException("capacity, width and depth must be positive, decayIntervalMillis >= 0");
+        }
+        int roundedWidth = Integer.highestOneBit(width) == width ? width : Integer.highestOneBit(width) << 1;
+        this.sketch = new long[depth][roundedWidth];
+        this.widthMask = roundedWidth - 1;
+        this.capacity = capacity;
+        this.decayIntervalMillis = decayIntervalMillis;
+        this.clock = clock;
+        this.heavyHitters = new HashMap<>(capacity * 2);
+        this.lastDecay = clock.getAsLong();
+    }
+
+    void record(String key) {
+        if (!lock.tryLock()) {
+            skipped.increment();
+            return;
+        }
+        try {
+            update(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Accesses not counted because record() found the lock taken
+    long skipped() {
+        return skipped.sum();
+    }
+
+    private void update(String key) {
+        maintain();
+        long count = increment(key);
+        Long tracked = heavyHitters.get(key);
+        if (tracked != null) {
+            heavyHitters.put(key, count);
+            if (key.equals(minKey)) {
+                findMin();
+            }
+        } else if (heavyHitters.size() < capacity) {
+            heavyHitters.put(key, count);
+            if (minKey == null || count < minCount) {
+                minKey = key;
+                minCount = count;
+            }
+        } else if (count > minCount) {
+            heavyHitters.remove(minKey);
+            heavyHitters.put(key, count);
+            findMin();
+        }
+    }
+
+    // Estimated (decayed) access count of key
+    long estimate(String key) {
+        lock.lock();
+        try {
+            maintain();
+            long estimate = Long.MAX_VALUE;
+            for (int row = 0; row < sketch.length; row++) {
+                estimate = Math.min(estimate, sketch[row][index(key, row)]);
+            }
+            return estimate;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Up to k keys with the highest estimates, most popular first
+    List<String> topKeys(int k) {
+        List<Map.Entry<String, Long>> entries;
+        lock.lock();
+        try {
+            maintain();
+            entries = new ArrayList<>(heavyHitters.size());
+            for (Map.Entry<String, Long> entry : heavyHitters.entrySet()) {
+                entries.add(new AbstractMap.SimpleImmutableEntry<>(entry));
+            }
+        } finally {
+            lock.unlock();
+        }
+        entries.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+        List<String> keys = new ArrayList<>(Math.min(k, entries.size()));
+        for (int i = 0; i < entries.size() && i < k; i++) {
+            keys.add(entries.get(i).getKey());
+        }
+        return keys;
+    }
+
+    // For keys that no longer exist (e.g. a removed book); its sketch counts remain but are harmless
+    // Queued rather than locked, so a writer never waits behind readers' record() calls;
+    // applied by whichever thread takes the lock next
+    void forget(String key) {
+        forgotten.add(key);
+    }
+
+    // Conservative update: only the rows at the current minimum are raised, which keeps
+    // the other rows' overcount from growing. Returns the new estimate
+    private long increment(String key) {
+        long current = Long.MAX_VALUE;
+        for (int row = 0; row < sketch.length; row++) {
+            current = Math.min(current, sketch[row][index(key, row)]);
+        }
+        long updated = current + 1;
+        for (int row = 0; row < sketch.length; row++) {
+            int index = index(key, row);
+            if (sketch[row][index] < updated) {
+                sketch[row][index] = updated;
+            }
+        }
+        return updated;
+    }
+
+    // Must hold lock. Housekeeping before every operation
+    private void maintain() {
+        String key;
+        while ((key = forgotten.poll()) != null) {
+            if (heavyHitters.remove(key) != null && key.equals(minKey)) {
+                findMin();
+            }
+        }
+        decayIfDue();
+    }
+
+    private void decayIfDue() {
+        if (decayIntervalMillis == 0) {
+            return;
+        }
+        long intervals = (clock.getAsLong() - lastDecay) / decayIntervalMillis;
+        if (intervals <= 0) {
+            return;
+        }
+        lastDecay += intervals * decayIntervalMillis;
+        int shift = (int) Math.min(intervals, 63);
+        for (long[] row : sketch) {
+            for (int i = 0; i < row.length; i++) {
+                row[i] >>>= shift;
+            }
+        }
+        for (Map.Entry<String, Long> entry : heavyHitters.entrySet()) {
+            entry.setValue(entry.getValue() >>> shift);
+        }
+        findMin();
+    }
+
+    private void findMin() {
+        minKey = null;
+        minCount = Long.MAX_VALUE;
+        for (Map.Entry<String, Long> entry : heavyHitters.entrySet()) {
+            if (entry.getValue() < minCount) {
+                minKey = entry.getKey();
+                minCount = entry.getValue();
+            }
+        }
+    }
+
+    // A different hash per row: the key's hash mixed with the row number (murmur3 finalizer)
+    private int index(String key, int row) {
+        long h = key.hashCode() * 0x9E3779B97F4A7C15L + row * 0xC2B2AE3D27D4EB4FL;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        return (int) h & widthMask;
+    }
+}
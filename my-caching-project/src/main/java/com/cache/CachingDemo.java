@@ -28,17 +28,27 @@ public class CachingDemo {
     // Thread-safe cache
     private static final Map<Integer, String> concurrentCache = new ConcurrentHashMap<>();
 
+    // Primitive int-keyed caches: no key boxing, no HashMap.Node per entry
+    private static final IntClockCache<String> intClockCache = new IntClockCache<>(LRU_CAPACITY);
+    private static final ConcurrentIntClockCache<String> concurrentIntCache = new ConcurrentIntClockCache<>(LRU_CAPACITY);
+
     public static void main(String[] args) {
-        // Populate the database
-        for (int i = 0; i < 1000; i++) {
-            database.put(i, "Value" + i);
-        }
+        populateDatabase();
 
         // Test different caching techniques
         testSimpleCache();
         testLRUCache();
         testTwoLevelCache();
         testConcurrentCache();
+        testIntClockCache();
+        testConcurrentIntCache();
+    }
+
+    // Populate the database (also used by the JMH benchmarks)
+    static void populateDatabase() {
+        for (int i = 0; i < 1000; i++) {
+            database.put(i, "Value" + i);
+        }
     }
 
     private static void testSimpleCache() {
@@ -104,21 +114,59 @@ public class CachingDemo {
         System.out.println("Cache size: " + concurrentCache.size());
     }
 
-    private static String getWithSimpleCache(int key) {
+    private static void testIntClockCache() {
+        System.out.println("\nTesting Int CLOCK Cache:");
+        long startTime = System.nanoTime();
+        for (int i = 0; i < 10000; i++) {
+            int key = i % 200;
+            getWithIntClockCache(key);
+        }
+        long endTime = System.nanoTime();
+        System.out.println("Time taken: " + (endTime - startTime) / 1000000.0 + "ms");
+        System.out.println("Cache size: " + intClockCache.size());
+    }
+
+    private static void testConcurrentIntCache() {
+        System.out.println("\nTesting Concurrent Int CLOCK Cache:");
+        long startTime = System.nanoTime();
+        Thread[] threads = new Thread[10];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    int key = i % 200;
+                    getWithConcurrentIntCache(key);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                e.printStackTrace();
+            }
+        }
+
+        long endTime = System.nanoTime();
+        System.out.println("Time taken: " + (endTime - startTime) / 1000000.0 + "ms");
+        System.out.println("Cache size: " + concurrentIntCache.size());
+    }
+
+    static String getWithSimpleCache(int key) {
         if (!simpleCache.containsKey(key)) {
             simpleCache.put(key, database.get(key));
         }
         return simpleCache.get(key);
     }
 
-    private static String getWithLRUCache(int key) {
+    static String getWithLRUCache(int key) {
         if (!lruCache.containsKey(key)) {
             lruCache.put(key, database.get(key));
         }
         return lruCache.get(key);
     }
 
-    private static String getWithTwoLevelCache(int key) {
+    static String getWithTwoLevelCache(int key) {
         if (l1Cache.containsKey(key)) {
             return l1Cache.get(key);
         }
@@ -140,7 +188,26 @@ public class CachingDemo {
         return value;
     }
 
-    private static String getWithConcurrentCache(int key) {
+    static String getWithConcurrentCache(int key) {
         return concurrentCache.computeIfAbsent(key, k -> database.get(k));
     }
+
+    // database.get still boxes the key; only the cache lookup is allocation-free
+    static String getWithIntClockCache(int key) {
+        String value = intClockCache.get(key);
+        if (value == null) {
+            value = database.get(key);
+            intClockCache.put(key, value);
+        }
+        return value;
+    }
+
+    static String getWithConcurrentIntCache(int key) {
+        String value = concurrentIntCache.get(key);
+        if (value == null) {
+            value = database.get(key);
+            concurrentIntCache.put(key, value);
+        }
+        return value;
+    }
 }
\ No newline at end of file
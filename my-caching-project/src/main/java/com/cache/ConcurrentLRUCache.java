@@ -0,0 +1,306 @@
+package com.cache;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Thread-safe, capacity-bounded LRU cache with the same shape as {@link MyLRUCache}.
+ *
+ * MyLRUCache relies on an access-ordered LinkedHashMap, so every get() rewires the
+ * linked list and the whole map has to sit behind one lock. Here the entries live in
+ * a ConcurrentHashMap and reads never take a lock:
+ *
+ * 1. A get() looks the node up in the map and records the access in one of several
+ *    striped read buffers (chosen by thread id). The buffers are lossy - if a stripe is
+ *    full the access is simply dropped, which only makes the LRU order slightly less exact.
+ * 2. When a stripe fills past a threshold, the reading thread tries (but never waits)
+ *    to take the maintenance lock and replays all buffered reads onto the LRU list in
+ *    one batch.
+ * 3. Writes (put/remove) take the maintenance lock, drain the read buffers, update the
+ *    list and evict from the head while size() exceeds the capacity.
+ */
+public class ConcurrentLRUCache<K, V> {
+
+    // Number of slots per read buffer stripe (power of two)
+    private static final int BUFFER_SIZE = 32;
+    private static final int BUFFER_MASK = BUFFER_SIZE - 1;
+
+    // A stripe is drained once this many reads are pending
+    private static final int DRAIN_THRESHOLD = BUFFER_SIZE / 2;
+
+    private final int capacity;
+    private final ConcurrentHashMap<K, Node<K, V>> data;
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final ReadBuffer<K, V>[] readBuffers;
+    private final int stripeMask;
+
+    // LRU list, guarded by evictionLock. head = least recently used, tail = most recently used
+    private Node<K, V> head;
+    private Node<K, V> tail;
+
+    public ConcurrentLRUCache(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.data = new ConcurrentHashMap<>(capacity);
+
+        int stripes = 1;
+        while (stripes < Runtime.getRuntime().availableProcessors() * 2) {
+            stripes <<= 1;
+        }
+        // Generic array creation is not allowed; every element is a ReadBuffer<K, V>
+        @SuppressWarnings("unchecked")
+        ReadBuffer<K, V>[] buffers = (ReadBuffer<K, V>[]) new ReadBuffer<?, ?>[stripes];
+        this.readBuffers = buffers;
+        for (int i = 0; i < stripes; i++) {
+            readBuffers[i] = new ReadBuffer<>();
+        }
+        this.stripeMask = stripes - 1;
+    }
+
+    public V get(K key) {
+        Node<K, V> node = data.get(key);
+        if (node == null) {
+            return null;
+        }
+        recordRead(node);
+        return node.value;
+    }
+
+    public boolean containsKey(K key) {
+        return data.containsKey(key);
+    }
+
+    public V put(K key, V value) {
+        if (key == null || value == null) {
+            throw new NullPointerException();
+        }
+        evictionLock.lock();
+        try {
+            drainReadBuffers();
+            Node<K, V> existing = data.get(key);
+            if (existing != null) {
+                V oldValue = existing.value;
+                existing.value = value;
+                moveToTail(existing);
+                return oldValue;
+            }
+
+            Node<K, V> node = new Node<>(key, value);
+            data.put(key, node);
+            linkLast(node);
+            while (data.size() > capacity) {
+                Node<K, V> eldest = head;
+                unlink(eldest);
+                data.remove(eldest.key, eldest);
+            }
+            return null;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    public V remove(K key) {
+        evictionLock.lock();
+        try {
+            drainReadBuffers();
+            Node<K, V> node = data.remove(key);
+            if (node == null) {
+                return null;
+            }
+            unlink(node);
+            return node.value;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    public void clear() {
+        evictionLock.lock();
+        try {
+            drainReadBuffers();
+            for (Node<K, V> node = head; node != null; ) {
+                Node<K, V> next = node.next;
+                node.prev = null;
+                node.next = null;
+                node.linked = false;
+                node = next;
+            }
+            head = null;
+            tail = null;
+            data.clear();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    public int size() {
+        return data.size();
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    // Record the access in this thread's stripe; the read is dropped if the stripe is full
+    private void recordRead(Node<K, V> node) {
+        ReadBuffer<K, V> buffer = readBuffers[stripeIndex()];
+        long writeCount = buffer.writeCount.get();
+        long pending = writeCount - buffer.readCount;
+        if (pending < BUFFER_SIZE && buffer.writeCount.compareAndSet(writeCount, writeCount + 1)) {
+            buffer.slots.lazySet((int) (writeCount & BUFFER_MASK), node);
+            pending++;
+        }
+        if (pending >= DRAIN_THRESHOLD && evictionLock.tryLock()) {
+            try {
+                drainReadBuffers();
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+
+    private int stripeIndex() {
+        long id = Thread.currentThread().getId();
+        int h = (int) (id ^ (id >>> 32)) * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & stripeMask;
+    }
+
+    // Replay buffered reads onto the LRU list. Must hold evictionLock
+    private void drainReadBuffers() {
+        for (ReadBuffer<K, V> buffer : readBuffers) {
+            long readCount = buffer.readCount;
+            long writeCount = buffer.writeCount.get();
+            while (readCount < writeCount) {
+                int index = (int) (readCount & BUFFER_MASK);
+                Node<K, V> node = buffer.slots.get(index);
+                if (node == null) {
+                    // The writer claimed the slot but has not published the node yet
+                    break;
+                }
+                buffer.slots.lazySet(index, null);
+                if (node.linked) {
+                    moveToTail(node);
+                }
+                readCount++;
+            }
+            buffer.readCount = readCount;
+        }
+    }
+
+    private void linkLast(Node<K, V> node) {
+        node.prev = tail;
+        node.next = null;
+        if (tail == null) {
+            head = node;
+        } else {
+            tail.next = node;
+        }
+        tail = node;
+        node.linked = true;
+    }
+
+    private void unlink(Node<K, V> node) {
+        Node<K, V> prev = node.prev;
+        Node<K, V> next = node.next;
+        if (prev == null) {
+            head = next;
+        } else {
+            prev.next = next;
+        }
+        if (next == null) {
+            tail = prev;
+        } else {
+            next.prev = prev;
+        }
+        node.prev = null;
+        node.next = null;
+        node.linked = false;
+    }
+
+    private void moveToTail(Node<K, V> node) {
+        if (node != tail) {
+            unlink(node);
+            linkLast(node);
+        }
+    }
+
+    // Prints entries from least to most recently used, like MyLRUCache.toString()
+    @Override
+    public String toString() {
+        evictionLock.lock();
+        try {
+            drainReadBuffers();
+            StringBuilder sb = new StringBuilder("{");
+            for (Node<K, V> node = head; node != null; node = node.next) {
+                sb.append(node.key).append('=').append(node.value);
+                if (node.next != null) {
+                    sb.append(", ");
+                }
+            }
+            return sb.append('}').toString();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private static final class Node<K, V> {
+        final K key;
+        volatile V value;
+
+        // Guarded by evictionLock
+        Node<K, V> prev;
+        Node<K, V> next;
+        boolean linked;
+
+        Node(K key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    private static final class ReadBuffer<K, V> {
+        final AtomicReferenceArray<Node<K, V>> slots = new AtomicReferenceArray<>(BUFFER_SIZE);
+        final AtomicLong writeCount = new AtomicLong();
+
+        // Only advanced under evictionLock
+        volatile long readCount;
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        ConcurrentLRUCache<String, String> cache = new ConcurrentLRUCache<>(3);
+        cache.put("key 1", "value 1");
+        cache.put("key 2", "value 2");
+        cache.put("key 3", "value 3");
+        System.out.println(cache);
+
+        cache.get("key 2");
+        cache.put("key 4", "value 4");
+        cache.put("key 5", "value 5");
+        System.out.println(cache);
+
+        // Many readers hitting the same cache without a global lock
+        ConcurrentLRUCache<Integer, String> shared = new ConcurrentLRUCache<>(1000);
+        for (int i = 0; i < 1000; i++) {
+            shared.put(i, "Value" + i);
+        }
+        Thread[] readers = new Thread[8];
+        long startTime = System.nanoTime();
+        for (int t = 0; t < readers.length; t++) {
+            readers[t] = new Thread(() -> {
+                for (int i = 0; i < 1_000_000; i++) {
+                    shared.get(i % 1000);
+                }
+            });
+            readers[t].start();
+        }
+        for (Thread reader : readers) {
+            reader.join();
+        }
+        long endTime = System.nanoTime();
+        System.out.println("8 readers x 1,000,000 gets: " + (endTime - startTime) / 1000000.0 + "ms, size " + shared.size());
+    }
+}
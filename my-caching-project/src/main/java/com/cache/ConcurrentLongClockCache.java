@@ -0,0 +1,109 @@
+package com.cache;
+
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Thread-safe LongClockCache, split into independently locked segments. Works exactly
+ * like ConcurrentIntClockCache: optimistic reads, one write lock per segment.
+ */
+public class ConcurrentLongClockCache<V> {
+
+    private final LongClockCache<V>[] segments;
+    private final StampedLock[] locks;
+    private final int segmentShift;
+
+    public ConcurrentLongClockCache(int capacity) {
+        this(capacity, Runtime.getRuntime().availableProcessors() * 4);
+    }
+
+    public ConcurrentLongClockCache(int capacity, int concurrencyLevel) {
+        int segmentCount = 1;
+        int shift = 0;
+        while (segmentCount < concurrencyLevel && segmentCount * 2 <= capacity) {
+            segmentCount <<= 1;
+            shift++;
+        }
+        this.segmentShift = 32 - shift;
+        // Generic array creation is not allowed; every element is a LongClockCache<V>
+        @SuppressWarnings("unchecked")
+        LongClockCache<V>[] segments = (LongClockCache<V>[]) new LongClockCache<?>[segmentCount];
+        this.segments = segments;
+        this.locks = new StampedLock[segmentCount];
+        int perSegment = (capacity + segmentCount - 1) / segmentCount;
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new LongClockCache<>(perSegment);
+            locks[i] = new StampedLock();
+        }
+    }
+
+    public V get(long key) {
+        int index = segmentFor(key);
+        LongClockCache<V> segment = segments[index];
+        StampedLock lock = locks[index];
+
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            int slot = segment.peekSlot(key);
+            V value = slot < 0 ? null : segment.valueAt(slot);
+            if (lock.validate(stamp)) {
+                // Only now is slot known to have held key; the bit is a hint, so a writer
+                // moving it right after this is harmless
+                if (slot >= 0) {
+                    segment.markReferenced(slot);
+                }
+                return value;
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            int slot = segment.peekSlot(key);
+            if (slot < 0) {
+                return null;
+            }
+            segment.markReferenced(slot);
+            return segment.valueAt(slot);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public V put(long key, V value) {
+        int index = segmentFor(key);
+        StampedLock lock = locks[index];
+        long stamp = lock.writeLock();
+        try {
+            return segments[index].put(key, value);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public V remove(long key) {
+        int index = segmentFor(key);
+        StampedLock lock = locks[index];
+        long stamp = lock.writeLock();
+        try {
+            return segments[index].remove(key);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (int i = 0; i < segments.length; i++) {
+            long stamp = locks[i].readLock();
+            try {
+                size += segments[i].size();
+            } finally {
+                locks[i].unlockRead(stamp);
+            }
+        }
+        return size;
+    }
+
+    // Segments use the high bits of the hash, the tables inside them the low bits
+    private int segmentFor(long key) {
+        return segmentShift == 32 ? 0 : LongClockCache.hash(key) >>> segmentShift;
+    }
+}
@@ -1,30 +1,70 @@
 package com.cache.DocumentCache;
 
+import java.io.Closeable;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToLongFunction;
 
+import com.cache.LogStore.SegmentedLogStore;
+import com.cache.codec.Codec;
 
-public class DetailDocumentCache {
+
+public class DetailDocumentCache implements Closeable {
      // Using ConcurrentHashMap to handle cache because it's thread-safe and 
      //suitable for concurrent environments
-    private final ConcurrentHashMap<String, Document> cache;
+    private final ConcurrentHashMap<String, CacheEntry> cache;
+
+    // CLOCK eviction: every cached entry sits once in this queue, in insertion order.
+    // A hit only sets the entry's referenced bit; the evictor takes entries off the head,
+    // gives referenced ones a second chance at the tail and evicts the first unreferenced one.
+    private final ConcurrentLinkedQueue<CacheEntry> clock = new ConcurrentLinkedQueue<>();
 
     // The directory where documents will be stored on disk
     private final String diskStoragePath;
 
+    // Documents are appended to a few large memory-mapped segment files in diskStoragePath
+    // (instead of one <id>.ser file each); an in-memory index finds them again
+    private final SegmentedLogStore diskStore;
+
+    // Record format in the disk store (DocumentCodec unless the caller supplies another)
+    private final Codec<Document> codec;
+
+    // Optional write-behind: saves are queued and written by a background thread
+    // (null = saveDocument writes to disk on the caller's thread)
+    private volatile DocumentWriteBehind writeBehind;
+
     // Maximum number of documents to keep in the cache
     private final int maxCacheSize;
 
+    // Byte budget for weighted mode (0 = bounded by maxCacheSize entries instead).
+    // A 10 MB document and a 10-byte one no longer count the same: each document is
+    // weighed on insert and the cache evicts until the total fits the budget.
+    private final long maxWeight;
+    private final ToLongFunction<Document> weigher;
+    private final AtomicLong totalWeight = new AtomicLong(0);
+
+    // Only one thread evicts at a time, so two evictors don't both free the same excess
+    // and the clock hand is only ever moved by one thread
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
       // AtomicInteger is used to keep track of cache hits in a thread-safe way 
       // without race conditions
       // We use AtomicInteger instead of volatile for the following reasons:
@@ -35,11 +75,51 @@ public class DetailDocumentCache {
       
     private final AtomicInteger cacheHits = new AtomicInteger(0);
     private final AtomicInteger cacheMisses = new AtomicInteger(0);
+
+    // Single-flight loads: the first thread to miss on an id loads it from disk, later
+    // misses on the same id wait for that result instead of reading the disk again
+    private final ConcurrentHashMap<String, CompletableFuture<Document>> inFlightLoads = new ConcurrentHashMap<>();
+    private final AtomicInteger coalescedLoads = new AtomicInteger(0);
     
     public DetailDocumentCache(int maxCacheSize, String diskStoragePath){
+        this(maxCacheSize, diskStoragePath, new DocumentCodec());
+    }
+
+    public DetailDocumentCache(int maxCacheSize, String diskStoragePath, Codec<Document> codec){
+        this(maxCacheSize, 0, null, diskStoragePath, codec);
+    }
+
+     // Weighted mode: keep at most maxWeightBytes of documents, as estimated by estimateSize().
+     // A named factory rather than a constructor, so a byte budget can never be mistaken for
+     // an entry count by overload resolution (new DetailDocumentCache(100L, ...) vs (100, ...))
+    public static DetailDocumentCache withByteBudget(long maxWeightBytes, String diskStoragePath){
+        return withByteBudget(maxWeightBytes, DetailDocumentCache::estimateSize, diskStoragePath);
+    }
+
+    public static DetailDocumentCache withByteBudget(long maxWeightBytes, ToLongFunction<Document> weigher,
+                                                     String diskStoragePath){
+        return withByteBudget(maxWeightBytes, weigher, diskStoragePath, new DocumentCodec());
+    }
+
+    public static DetailDocumentCache withByteBudget(long maxWeightBytes, ToLongFunction<Document> weigher,
+                                                     String diskStoragePath, Codec<Document> codec){
+        if(maxWeightBytes <= 0){
+            throw new IllegalArgumentException("maxWeightBytes must be positive: " + maxWeightBytes);
+        }
+        if(weigher == null){
+            throw new IllegalArgumentException("weigher must not be null");
+        }
+        return new DetailDocumentCache(Integer.MAX_VALUE, maxWeightBytes, weigher, diskStoragePath, codec);
+    }
+
+    private DetailDocumentCache(int maxCacheSize, long maxWeight, ToLongFunction<Document> weigher, String diskStoragePath,
+                                Codec<Document> codec){
         this.maxCacheSize = maxCacheSize;
+        this.codec = codec;
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
         this.diskStoragePath = diskStoragePath;
-        this.cache = new ConcurrentHashMap<>(maxCacheSize);
+        this.cache = new ConcurrentHashMap<>(weigher == null ? maxCacheSize : 16);
 
   // Create directories if they do not exist for disk storage
         try{
@@ -49,34 +129,88 @@ public class DetailDocumentCache {
         }catch(IOException e){
             e.printStackTrace();
         }
+
+        try{
+            this.diskStore = new SegmentedLogStore(Paths.get(diskStoragePath));
+            importLegacyFiles();
+        }catch(IOException e){
+            throw new UncheckedIOException("Failed to open document store at " + diskStoragePath, e);
+        }
     }
 
      // Method to retrieve a document either from cache or from disk storage
       public Document getDocument(String documentId) throws IOException, ClassNotFoundException{
-        Document cacheDocument = cache.get(documentId);
+        CacheEntry cacheEntry = cache.get(documentId);
 
          // If the document is found in cache, increment cache hits
-         if(cacheDocument != null){
+         if(cacheEntry != null){
             cacheHits.incrementAndGet();
-            return cacheDocument;
+            cacheEntry.markReferenced();
+            return cacheEntry.document;
          }
          else{
             // If the document is not found, increment cache misses and load from disk
             cacheMisses.incrementAndGet();
-            Document document = loadDocumentFromDisk(documentId);
-            if(document != null){
-                  // Add the document to cache for future access
-                  addToCache(documentId, document);
+            return loadOnce(documentId);
+        }
+      }
 
+      // Only one thread per id goes to disk; the others wait for its result.
+      // A failed load is reported to every waiter and then forgotten, so the next miss retries.
+      private Document loadOnce(String documentId) throws IOException, ClassNotFoundException{
+        CompletableFuture<Document> load = new CompletableFuture<>();
+        CompletableFuture<Document> inFlight = inFlightLoads.putIfAbsent(documentId, load);
+        if(inFlight != null){
+            coalescedLoads.incrementAndGet();
+            return awaitLoad(documentId, inFlight);
+        }
+        try{
+            // A load that finished just before ours was registered has already filled the cache
+            CacheEntry cached = cache.get(documentId);
+            Document document = cached == null ? null : cached.document;
+            if(document == null){
+                document = loadDocumentFromDisk(documentId);
+                if(document != null){
+                    // Add the document to cache for future access
+                    addLoadedToCache(documentId, document);
+                }
             }
+            load.complete(document);
             return document;
+        }catch(Throwable t){
+            load.completeExceptionally(t);
+            throw t;
+        }finally{
+            inFlightLoads.remove(documentId, load);
+        }
+      }
+
+      private static Document awaitLoad(String documentId, CompletableFuture<Document> load) throws IOException, ClassNotFoundException{
+        try{
+            return load.get();
+        }catch(InterruptedException e){
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for document " + documentId);
+        }catch(ExecutionException e){
+            // Re-throw the loader's failure as the same type getDocument declares
+            Throwable cause = e.getCause();
+            if(cause instanceof IOException){
+                throw new IOException("Failed to load document " + documentId, cause);
+            }
+            if(cause instanceof ClassNotFoundException){
+                throw new ClassNotFoundException("Failed to load document " + documentId, cause);
+            }
+            if(cause instanceof Error){
+                throw (Error) cause;
+            }
+            throw new IllegalStateException("Failed to load document " + documentId, cause);
         }
       }
          // Method to save a document to both cache and disk storage
 
          public void saveDocument(Document document) throws IOException{
              // Save the document to the in-memory cache
-             cache.put(document.getDocumentId(), document);
+             putInCache(document.getDocumentId(), document);
              System.out.println("Saved document to cache: " + document.getDocumentId());
 
              // Evict older documents if cache exceeds the limit
@@ -87,17 +221,44 @@ public class DetailDocumentCache {
          }
 
 
+          // Switch saveDocument to write-behind. Call before the cache is shared between threads.
+          // flushIntervalMillis bounds how long a save can sit in memory before it is written.
+          public DetailDocumentCache enableWriteBehind(int queueCapacity, long flushIntervalMillis,
+                                                       DocumentWriteBehind.FsyncPolicy fsyncPolicy){
+            if(writeBehind == null){
+                writeBehind = new DocumentWriteBehind(diskStore, codec, queueCapacity, flushIntervalMillis, fsyncPolicy);
+            }
+            return this;
+          }
+
+          // Write-behind metrics (queue depth, coalescing, backpressure), or null if not enabled
+          public DocumentWriteBehind getWriteBehind(){
+            return writeBehind;
+          }
+
+          // Durability point: returns once every save made before the call is on disk
+          public void flush() throws IOException{
+            DocumentWriteBehind queue = writeBehind;
+            if(queue != null){
+                queue.flush();
+            }else{
+                diskStore.sync();
+            }
+          }
+
           // Helper method to save a document to disk storage
           private void saveToDisk(Document document) throws IOException{
-            Path filePath = Paths.get(diskStoragePath, document.getDocumentId() 
-            + ".ser");
-
-              // Use ObjectOutputStream to serialize the document object and write to a file
-              try(ObjectOutputStream out = new ObjectOutputStream(Files.newOutputStream(filePath))){
-                out.writeObject(document);
-                System.out.println("Saved document to disk: " + filePath);
+            DocumentWriteBehind queue = writeBehind;
+            if(queue != null){
+                queue.submit(document);
+                return;
+            }
+              // Append the encoded document to the log; the previous version becomes dead space
+              try{
+                diskStore.put(document.getDocumentId(), codec.encode(document));
+                System.out.println("Saved document to disk: " + document.getDocumentId());
               }catch (IOException e) {
-                System.err.println("Failed to save document to disk: " + filePath);
+                System.err.println("Failed to save document to disk: " + document.getDocumentId());
                 e.printStackTrace();
             }
           }
@@ -106,40 +267,255 @@ public class DetailDocumentCache {
             public void printCacheStatistics(){
                 System.out.println("Cache Hits: " + cacheHits.get());
                 System.out.println("Cache Misses: " + cacheMisses.get());
+                System.out.println("Coalesced Loads: " + coalescedLoads.get());
                 System.out.println("Cache Size: " + cache.size());
-                System.out.println("Cache Capacity: " + maxCacheSize);
+                if(weigher == null){
+                    System.out.println("Cache Capacity: " + maxCacheSize);
+                }else{
+                    System.out.println("Cache Weight: " + totalWeight.get() + " / " + maxWeight + " bytes");
+                }
                 System.out.println("Cache Efficiency: " + ((double) cacheHits.get() / (cacheHits.get() + cacheMisses.get()) * 100) + "%");
+                DocumentWriteBehind queue = writeBehind;
+                if(queue != null){
+                    queue.printStatistics();
+                }
               }
 
-               // Add a document to cache and handle eviction if necessary
-               private void addToCache(String documentId, Document document){
-                if(cache.size() > maxCacheSize){
-                    evictCacheIfNecessary();
+               // Cache a document read from disk. putIfAbsent so a load that raced with
+               // saveDocument never replaces the newer saved version.
+               private void addLoadedToCache(String documentId, Document document){
+                long weight = weigh(document);
+                if(weight > maxWeight){
+                    return;
+                }
+                CacheEntry entry = new CacheEntry(documentId, document, weight);
+                if(cache.putIfAbsent(documentId, entry) == null){
+                    clock.offer(entry);
+                    totalWeight.addAndGet(weight);
+                }
+                evictCacheIfNecessary();
+               }
+
+               // Put a document in the map and keep totalWeight in step with it.
+               // Updating a cached id replaces the document inside its entry, so the entry
+               // keeps its place on the clock and no stale copy is left in the queue.
+               // A new entry is offered to the clock only after compute has published it:
+               // evictOne drops queued entries it cannot find in the map, so one offered
+               // from inside compute could be dropped and never become evictable.
+               private void putInCache(String documentId, Document document){
+                long weight = weigh(document);
+                if(weight > maxWeight){
+                    // Larger than the whole budget: it would only flush everything else
+                    removeFromCache(documentId);
+                    return;
+                }
+                CacheEntry[] created = new CacheEntry[1];
+                cache.compute(documentId, (id, entry) -> {
+                    if(entry == null){
+                        entry = new CacheEntry(id, document, weight);
+                        created[0] = entry;
+                        totalWeight.addAndGet(weight);
+                    }else{
+                        totalWeight.addAndGet(weight - entry.weight);
+                        entry.document = document;
+                        entry.weight = weight;
+                        entry.markReferenced();
+                    }
+                    return entry;
+                });
+                if(created[0] != null){
+                    clock.offer(created[0]);
+                }
+               }
+
+               // Returns the weight that was freed (0 if the document was not cached).
+               // Only used for documents over the whole budget, so the O(n) unlink is rare.
+               private long removeFromCache(String documentId){
+                CacheEntry removed = cache.remove(documentId);
+                if(removed == null){
+                    return 0;
                 }
-                cache.put(documentId, document);
+                clock.remove(removed);
+                totalWeight.addAndGet(-removed.weight);
+                return removed.weight;
+               }
+
+               // Entry count mode weighs every document as 0 bytes
+               private long weigh(Document document){
+                return weigher == null ? 0 : weigher.applyAsLong(document);
                }
 
         // Load a document from disk storage
         private Document loadDocumentFromDisk(String documentId) throws IOException,ClassNotFoundException{
-            Path filePath = Paths.get(diskStoragePath, documentId + ".ser");
-            
-             // Check if the file exists on disk and read the document object
-             if(Files.exists(filePath)){
-                try(ObjectInputStream in = new ObjectInputStream(Files.newInputStream(filePath))){
-                    return (Document) in.readObject();
-                }
+             // A save still waiting in the write-behind queue is newer than anything on disk
+             DocumentWriteBehind queue = writeBehind;
+             if(queue != null){
+                 Document pending = queue.pendingDocument(documentId);
+                 if(pending != null){
+                     return pending;
+                 }
              }
-             return null;
+             // The index answers misses without touching the disk; hits are a slice of the mapped segment
+             ByteBuffer record = diskStore.get(documentId);
+             return record == null ? null : codec.decode(record);
         } 
 
-         // Evict the oldest document if the cache exceeds the maximum size
+        // One-time import of documents written by older versions as <id>.ser files.
+        // The .ser files are left in place; ids already in the log are skipped.
+        private void importLegacyFiles() throws IOException{
+            try(DirectoryStream<Path> files = Files.newDirectoryStream(Paths.get(diskStoragePath), "*.ser")){
+                for(Path file : files){
+                    String fileName = file.getFileName().toString();
+                    String documentId = fileName.substring(0, fileName.length() - ".ser".length());
+                    if(diskStore.contains(documentId)){
+                        continue;
+                    }
+                    try(ObjectInputStream in = new ObjectInputStream(Files.newInputStream(file))){
+                        diskStore.put(documentId, codec.encode((Document) in.readObject()));
+                    }catch(ClassNotFoundException | IOException e){
+                        System.err.println("Skipping unreadable legacy document: " + file);
+                    }
+                }
+            }
+        }
+
+        // Drain pending writes, then flush and close the disk store
+        @Override
+        public void close() throws IOException{
+            DocumentWriteBehind queue = writeBehind;
+            if(queue != null){
+                queue.close();
+            }
+            diskStore.close();
+        }
+
+         // Evict documents with the CLOCK policy if the cache exceeds its limit.
+         // The excess is worked out once, so an evictor never chases inserts made by other threads
+         // (each inserting thread evicts for its own insert).
          private void evictCacheIfNecessary(){
-            while(cache.size() > maxCacheSize){
-                String oldestDocument = cache.keySet().iterator().next();
-                cache.remove(oldestDocument);
+            if(weigher != null){
+                evictToWeight();
+                return;
+            }
+            if(cache.size() <= maxCacheSize){
+                return;
+            }
+            evictionLock.lock();
+            try{
+                int excess = cache.size() - maxCacheSize;
+                for(int i = 0; i < excess && evictOne() != null; i++){
+                    // evictOne removed a victim
+                }
+            }finally{
+                evictionLock.unlock();
             }
          }
 
+         // Weighted mode: work out how many bytes are over budget and free at least that
+         // much in a single pass, instead of re-checking the total after every removal
+         private void evictToWeight(){
+            if(totalWeight.get() <= maxWeight){
+                return;
+            }
+            evictionLock.lock();
+            try{
+                long excess = totalWeight.get() - maxWeight;
+                long freed = 0;
+                while(freed < excess){
+                    CacheEntry victim = evictOne();
+                    if(victim == null){
+                        break;
+                    }
+                    freed += victim.weight;
+                }
+            }finally{
+                evictionLock.unlock();
+            }
+         }
+
+         // Advance the clock hand to the first unreferenced entry and evict it. Referenced
+         // entries have their bit cleared and go back to the tail, and entries that were
+         // already removed are dropped, so each entry is passed over at most once per sweep:
+         // amortized O(1) per eviction. Must be called with evictionLock held.
+         private CacheEntry evictOne(){
+            CacheEntry entry;
+            while((entry = clock.poll()) != null){
+                if(cache.get(entry.documentId) != entry){
+                    // Removed since it was queued
+                    continue;
+                }
+                if(entry.referenced){
+                    entry.referenced = false;
+                    clock.offer(entry);
+                    continue;
+                }
+                if(cache.remove(entry.documentId, entry)){
+                    totalWeight.addAndGet(-entry.weight);
+                    return entry;
+                }
+            }
+            return null;
+         }
+
+         // Default weigher: approximate heap footprint of a document, dominated by its content
+         public static long estimateSize(Document document){
+            // Object headers, fields and the two String objects
+            long size = 96;
+            size += 2L * document.getDocumentId().length();
+            size += 2L * document.getContent().length();
+            return size;
+         }
+
+         // Byte budget that is a fixed share of the maximum heap, e.g. heapShare(0.25)
+         public static long heapShare(double fraction){
+            return (long) (Runtime.getRuntime().maxMemory() * fraction);
+         }
+
+        // Number of documents in memory
+        int getCachedCount(){
+            return cache.size();
+        }
+
+        // Misses that waited for another thread's load of the same id
+        int getCoalescedLoads(){
+            return coalescedLoads.get();
+        }
+
+        // Total weight of the documents in memory (0 in entry count mode)
+        long getCachedWeight(){
+            return totalWeight.get();
+        }
+
+        // Hit rate over the lifetime of the cache, 0..1
+        public double getHitRate(){
+            int hits = cacheHits.get();
+            int total = hits + cacheMisses.get();
+            return total == 0 ? 0 : (double) hits / total;
+        }
+
+        // A cached document plus its CLOCK bit. The document and weight change in place
+        // (inside cache.compute) when an already cached id is saved again.
+        private static final class CacheEntry{
+            final String documentId;
+            volatile Document document;
+            volatile long weight;
+            volatile boolean referenced;
+
+            CacheEntry(String documentId, Document document, long weight){
+                this.documentId = documentId;
+                this.document = document;
+                this.weight = weight;
+            }
+
+            // Skip the write when the bit is already set, so hot entries don't keep
+            // dirtying their cache line on every read
+            void markReferenced(){
+                if(!referenced){
+                    referenced = true;
+                }
+            }
+        }
+
         // Static inner class to represent a Document that implements Serializable
         public static class Document implements Serializable{
             private final String documentId;
@@ -231,6 +607,12 @@ public class DetailDocumentCache {
                 //print cache performance statistics
                 cache.printCacheStatistics();
 
+                try{
+                    cache.close();
+                }catch(IOException e){
+                    e.printStackTrace();
+                }
+
         }
 
 }
@@ -0,0 +1,38 @@
+package com.cache.DocumentCache;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+import com.cache.DocumentCache.DetailDocumentCache.Document;
+import com.cache.codec.BinaryReader;
+import com.cache.codec.BinaryWriter;
+import com.cache.codec.Codec;
+
+/**
+ * Binary Document format used by the segmented disk store:
+ * length-prefixed UTF-8 id and content, then timestamp and lastModifiedTime as longs.
+ */
+public class DocumentCodec implements Codec<Document> {
+
+    @Override
+    public byte[] encode(Document document) {
+        return BinaryWriter.get()
+            .putString(document.getDocumentId())
+            .putString(document.getContent())
+            .putLong(document.getTimestamp())
+            .putLong(document.getLastModifiedTime())
+            .toByteArray();
+    }
+
+    @Override
+    public Document decode(ByteBuffer buffer) throws IOException {
+        try {
+            String id = BinaryReader.getString(buffer);
+            String content = BinaryReader.getString(buffer);
+            return new Document(id, content, buffer.getLong(), buffer.getLong());
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new IOException("Corrupt document record", e);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.cache.DocumentCache;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.cache.DocumentCache.DetailDocumentCache.Document;
+import com.cache.LogStore.SegmentedLogStore;
+
+/**
+ * Hit-rate comparison between the CLOCK policy used by DetailDocumentCache and the old
+ * policy, which removed whatever ConcurrentHashMap's key iterator returned first
+ * (hash-bucket order, so hot and cold documents were equally likely to go).
+ *
+ * Both caches see the same access sequences:
+ * - zipfian: a few documents get most of the reads (skew 0.99, like a typical document store)
+ * - hot set + scan: a small hot set, read twice per round and followed by
+ *   a one-off scan of cold documents
+ */
+public class DocumentEvictionComparison {
+
+    private static final int DOCUMENTS = 10_000;
+    private static final int CACHE_SIZE = 500;
+    private static final int ACCESSES = 200_000;
+
+    public static void main(String[] args) throws IOException, ClassNotFoundException {
+        Path storage = Files.createTempDirectory("document-eviction");
+        writeDocuments(storage);
+
+        int[] zipfian = zipfian(new Random(42));
+        int[] hotAndScan = hotSetWithScans();
+
+        System.out.println("Workload          iterator-head   CLOCK");
+        System.out.printf("zipfian           %10.1f%%   %5.1f%%%n",
+            iteratorHeadHitRate(zipfian), clockHitRate(storage, zipfian));
+        System.out.printf("hot set + scan    %10.1f%%   %5.1f%%%n",
+            iteratorHeadHitRate(hotAndScan), clockHitRate(storage, hotAndScan));
+    }
+
+    private static double clockHitRate(Path storage, int[] accesses) throws IOException, ClassNotFoundException {
+        try (DetailDocumentCache cache = new DetailDocumentCache(CACHE_SIZE, storage.toString())) {
+            for (int document : accesses) {
+                cache.getDocument("Document" + document);
+            }
+            return 100 * cache.getHitRate();
+        }
+    }
+
+    // The eviction DetailDocumentCache used before: remove the iterator head until the size fits
+    private static double iteratorHeadHitRate(int[] accesses) {
+        ConcurrentHashMap<String, Document> cache = new ConcurrentHashMap<>(CACHE_SIZE);
+        int hits = 0;
+        for (int document : accesses) {
+            String id = "Document" + document;
+            if (cache.get(id) != null) {
+                hits++;
+                continue;
+            }
+            cache.put(id, new Document(id, "Content for " + id, 0, 0));
+            while (cache.size() > CACHE_SIZE) {
+                cache.remove(cache.keySet().iterator().next());
+            }
+        }
+        return 100.0 * hits / accesses.length;
+    }
+
+    // Misses in DetailDocumentCache load from the log store, so every document has to be there
+    private static void writeDocuments(Path storage) throws IOException {
+        DocumentCodec codec = new DocumentCodec();
+        try (SegmentedLogStore store = new SegmentedLogStore(storage)) {
+            for (int i = 0; i < DOCUMENTS; i++) {
+                String id = "Document" + i;
+                store.put(id, codec.encode(new Document(id, "Content for " + id, 0, 0)));
+            }
+        }
+    }
+
+    private static int[] zipfian(Random random) {
+        // Cumulative distribution over document ranks, sampled by binary search
+        double[] cumulative = new double[DOCUMENTS];
+        double sum = 0;
+        for (int i = 0; i < DOCUMENTS; i++) {
+            sum += 1 / Math.pow(i + 1, 0.99);
+            cumulative[i] = sum;
+        }
+        int[] accesses = new int[ACCESSES];
+        for (int i = 0; i < ACCESSES; i++) {
+            double target = random.nextDouble() * sum;
+            int low = 0;
+            int high = DOCUMENTS - 1;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (cumulative[mid] < target) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            accesses[i] = low;
+        }
+        return accesses;
+    }
+
+    // 200 hot documents read twice each round, then 400 cold documents that are never read again
+    private static int[] hotSetWithScans() {
+        int[] accesses = new int[ACCESSES];
+        int scanDocument = 200;
+        int i = 0;
+        while (i < ACCESSES) {
+            for (int hot = 0; hot < 400 && i < ACCESSES; hot++) {
+                accesses[i++] = hot % 200;
+            }
+            for (int scan = 0; scan < 400 && i < ACCESSES; scan++) {
+                accesses[i++] = scanDocument;
+                scanDocument = scanDocument + 1 < DOCUMENTS ? scanDocument + 1 : 200;
+            }
+        }
+        return accesses;
+    }
+}
@@ -0,0 +1,385 @@
+package com.cache.DocumentCache;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.cache.DocumentCache.DetailDocumentCache.Document;
+import com.cache.LogStore.SegmentedLogStore;
+import com.cache.codec.Codec;
+
+/**
+ * Write-behind queue between DetailDocumentCache.saveDocument and the disk store.
+ *
+ * How it works:
+ * 1. submit() records the latest version of the document in a pending map and puts its
+ *    id on a bounded queue. If the id is already pending, the newer document simply
+ *    replaces the older one (coalescing) and no queue slot is used.
+ * 2. A background writer wakes up every flushInterval (or as soon as a full batch is
+ *    queued), drains the queue in batches and appends each pending document to the store.
+ * 3. When the queue is full, submit() blocks until the writer catches up. How often and
+ *    for how long that happens is exposed as backpressure metrics.
+ * 4. flush() waits until everything submitted before the call is on disk; close() drains
+ *    the queue and stops the writer.
+ * 5. A document whose write fails stays pending (and readable) and is retried every time
+ *    the writer wakes up. flush() and close() throw while such a write keeps failing.
+ */
+public class DocumentWriteBehind implements Closeable {
+
+    public enum FsyncPolicy {
+        // Leave dirty pages to the operating system
+        NEVER,
+        // Force the store to disk in flush() and close()
+        ON_FLUSH,
+        // Force the store to disk after every batch
+        EVERY_BATCH
+    }
+
+    private static final int MAX_BATCH_SIZE = 256;
+
+    private final SegmentedLogStore store;
+    private final Codec<Document> codec;
+    private final long flushIntervalMillis;
+    private final FsyncPolicy fsyncPolicy;
+    private final BlockingQueue<String> queue;
+    private final ConcurrentHashMap<String, Pending> pending = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final Thread writer;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition wakeUp = lock.newCondition();
+    private final Condition progress = lock.newCondition();
+    // Set with every signal, so one sent while the writer is busy is not lost
+    private boolean wakeRequested;
+    // Number of times the writer woke up, so flush() can tell a failure it caused from an older one
+    private long cycle;
+    // Ids whose last write failed; only touched by the writer thread
+    private final Set<String> retries = new LinkedHashSet<>();
+    private volatile boolean running = true;
+
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    private final AtomicInteger maxQueueDepth = new AtomicInteger();
+    private final AtomicLong coalescedWrites = new AtomicLong();
+    private final AtomicLong writtenDocuments = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong failedWrites = new AtomicLong();
+    private final AtomicLong backpressureEvents = new AtomicLong();
+    private final AtomicLong backpressureNanos = new AtomicLong();
+
+    public DocumentWriteBehind(SegmentedLogStore store, Codec<Document> codec, int queueCapacity,
+                               long flushIntervalMillis, FsyncPolicy fsyncPolicy) {
+        this.store = store;
+        this.codec = codec;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.fsyncPolicy = fsyncPolicy;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.writer = new Thread(this::runWriter, "document-write-behind");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    public void submit(Document document) throws IOException {
+        if (!running) {
+            throw new IOException("Write-behind queue is closed");
+        }
+        String documentId = document.getDocumentId();
+        long seq = sequence.incrementAndGet();
+        Pending[] added = new Pending[1];
+        pending.compute(documentId, (id, existing) -> {
+            if (existing == null) {
+                added[0] = new Pending(document, seq);
+                return added[0];
+            }
+            coalescedWrites.incrementAndGet();
+            existing.document = document;
+            existing.seq = seq;
+            return existing;
+        });
+        if (added[0] == null) {
+            return;
+        }
+
+        int depth = queueDepth.incrementAndGet();
+        updateMaxDepth(depth);
+        if (!queue.offer(documentId)) {
+            // Queue full: block the caller until the writer frees a slot
+            backpressureEvents.incrementAndGet();
+            signalWriter();
+            long start = System.nanoTime();
+            // Other saves may already have been coalesced into our entry, so once it is in the
+            // pending map the id has to reach the queue: wait uninterruptibly and keep the flag
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    queue.put(documentId);
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            backpressureNanos.addAndGet(System.nanoTime() - start);
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (depth >= MAX_BATCH_SIZE) {
+            signalWriter();
+        }
+    }
+
+    // The newest document waiting to be written, so reads see saves that are not on disk yet
+    public Document pendingDocument(String documentId) {
+        Pending entry = pending.get(documentId);
+        return entry == null ? null : entry.document;
+    }
+
+    // Block until every document submitted before this call has been written. Throws if one
+    // of them could not be written, even after the writer retried it for this flush
+    public void flush() throws IOException {
+        long target = sequence.get();
+        lock.lock();
+        try {
+            long startCycle = cycle;
+            while (hasPendingUpTo(target)) {
+                int failed = countFailedUpTo(target, startCycle);
+                if (failed > 0) {
+                    throw new IOException(failed + " document(s) could not be written to disk");
+                }
+                if (!writer.isAlive()) {
+                    throw new IOException("Write-behind writer stopped with pending documents");
+                }
+                wakeRequested = true;
+                wakeUp.signal();
+                progress.await();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while flushing write-behind queue", e);
+        } finally {
+            lock.unlock();
+        }
+        if (fsyncPolicy != FsyncPolicy.NEVER) {
+            store.sync();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        signalWriter();
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while draining write-behind queue", e);
+        }
+        if (fsyncPolicy != FsyncPolicy.NEVER) {
+            store.sync();
+        }
+        if (!pending.isEmpty()) {
+            throw new IOException(pending.size() + " document(s) could not be written to disk");
+        }
+    }
+
+    // Ids on the queue plus saves blocked waiting for a slot
+    public int getQueueDepth() {
+        return queueDepth.get();
+    }
+
+    public int getMaxQueueDepth() {
+        return maxQueueDepth.get();
+    }
+
+    public long getCoalescedWrites() {
+        return coalescedWrites.get();
+    }
+
+    public long getWrittenDocuments() {
+        return writtenDocuments.get();
+    }
+
+    public long getBatches() {
+        return batches.get();
+    }
+
+    public long getFailedWrites() {
+        return failedWrites.get();
+    }
+
+    // Number of saves that found the queue full and had to wait
+    public long getBackpressureEvents() {
+        return backpressureEvents.get();
+    }
+
+    public long getBackpressureWaitMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(backpressureNanos.get());
+    }
+
+    public void printStatistics() {
+        System.out.println("Write-behind queue depth: " + getQueueDepth() + " (max " + getMaxQueueDepth() + ")");
+        System.out.println("Write-behind written: " + getWrittenDocuments() + " in " + getBatches()
+            + " batches, coalesced: " + getCoalescedWrites() + ", failed: " + getFailedWrites());
+        System.out.println("Write-behind backpressure: " + getBackpressureEvents() + " waits, "
+            + getBackpressureWaitMillis() + "ms");
+    }
+
+    private void runWriter() {
+        List<String> batch = new ArrayList<>(MAX_BATCH_SIZE);
+        long currentCycle;
+        while (true) {
+            lock.lock();
+            try {
+                if (running && !wakeRequested && queueDepth.get() < MAX_BATCH_SIZE) {
+                    wakeUp.await(flushIntervalMillis, TimeUnit.MILLISECONDS);
+                }
+            } catch (InterruptedException e) {
+                running = false;
+            } finally {
+                wakeRequested = false;
+                currentCycle = ++cycle;
+                lock.unlock();
+            }
+
+            if (!retries.isEmpty()) {
+                batch.addAll(retries);
+                retries.clear();
+                writeBatch(batch, currentCycle);
+                batch.clear();
+            }
+            while (queue.drainTo(batch, MAX_BATCH_SIZE) > 0) {
+                queueDepth.addAndGet(-batch.size());
+                writeBatch(batch, currentCycle);
+                batch.clear();
+            }
+
+            lock.lock();
+            try {
+                progress.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            if (!running && queue.isEmpty()) {
+                return;
+            }
+        }
+    }
+
+    // An entry leaves the pending map only after its document is in the store, so
+    // pendingDocument() and flush() never miss a save that is on its way to disk
+    private void writeBatch(List<String> batch, long currentCycle) {
+        for (String documentId : batch) {
+            Pending entry = pending.get(documentId);
+            while (entry != null) {
+                // seq before document: submit() sets them the other way round, so the document
+                // written is at least as new as writtenSeq
+                long writtenSeq = entry.seq;
+                try {
+                    store.put(documentId, codec.encode(entry.document));
+                    writtenDocuments.incrementAndGet();
+                } catch (IOException e) {
+                    // Leave it pending: reads still see it, flush() reports it and the next
+                    // wake-up writes it again
+                    failedWrites.incrementAndGet();
+                    entry.failedCycle = currentCycle;
+                    retries.add(documentId);
+                    System.err.println("Failed to save document to disk: " + documentId);
+                    e.printStackTrace();
+                    break;
+                }
+                entry = markWritten(documentId, entry, writtenSeq);
+            }
+        }
+        if (fsyncPolicy == FsyncPolicy.EVERY_BATCH) {
+            store.sync();
+        }
+        batches.incrementAndGet();
+    }
+
+    // Removes entry if nothing was saved into it since writtenSeq and returns null. Otherwise a
+    // newer save was coalesced into it while we were writing: returns it to be written again
+    private Pending markWritten(String documentId, Pending entry, long writtenSeq) {
+        Pending[] rewrite = new Pending[1];
+        pending.computeIfPresent(documentId, (id, current) -> {
+            if (current != entry) {
+                return current;
+            }
+            if (current.seq == writtenSeq) {
+                return null;
+            }
+            current.oldestUnwritten = writtenSeq + 1;
+            rewrite[0] = current;
+            return current;
+        });
+        return rewrite[0];
+    }
+
+    // Entries flush() waits on whose write failed in a writer cycle that began after it started
+    private int countFailedUpTo(long target, long startCycle) {
+        int failed = 0;
+        for (Pending entry : pending.values()) {
+            if (entry.oldestUnwritten <= target && entry.failedCycle > startCycle) {
+                failed++;
+            }
+        }
+        return failed;
+    }
+
+    private boolean hasPendingUpTo(long target) {
+        for (Pending entry : pending.values()) {
+            if (entry.oldestUnwritten <= target) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void signalWriter() {
+        lock.lock();
+        try {
+            wakeRequested = true;
+            wakeUp.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void updateMaxDepth(int depth) {
+        int max;
+        while (depth > (max = maxQueueDepth.get())) {
+            if (maxQueueDepth.compareAndSet(max, depth)) {
+                return;
+            }
+        }
+    }
+
+    private static final class Pending {
+        volatile Document document;
+        // Sequence number of the newest save in document
+        volatile long seq;
+        // Every save of this id numbered below this is on disk; what flush() waits on, since
+        // seq moves past flush's target whenever a later save is coalesced into the entry
+        volatile long oldestUnwritten;
+        // Writer cycle of the last failed write, 0 if none failed
+        volatile long failedCycle;
+
+        Pending(Document document, long seq) {
+            this.document = document;
+            this.seq = seq;
+            this.oldestUnwritten = seq;
+        }
+    }
+}
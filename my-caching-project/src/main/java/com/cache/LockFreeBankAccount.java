@@ -0,0 +1,140 @@
+package com.cache;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * BankAccount without a monitor.
+ *
+ * - The balance is an AtomicLong updated with CAS, so deposits and withdrawals that have
+ *   the funds never block each other.
+ * - A withdrawal that has to wait joins a FIFO queue and parks. A deposit serves the queue
+ *   from the head while the balance covers the head's amount, deducting it and unparking
+ *   just that thread; everyone else stays parked. Queued withdrawals are served strictly in
+ *   order, so a large one is not starved by small ones queued behind it.
+ * - A new withdrawal only takes funds directly if it sees an empty queue. That check and
+ *   the balance CAS are two steps, so a withdrawal racing with one that is just joining
+ *   the queue can still go first: FIFO across queued and new withdrawals is best effort.
+ * - Log lines go to an AsyncAppender, built after the update and outside any critical
+ *   section.
+ */
+class LockFreeBankAccount {
+
+    private final AtomicLong balance = new AtomicLong();
+    private final ConcurrentLinkedQueue<Waiter> waiters = new ConcurrentLinkedQueue<>();
+    // Only one thread serves the queue at a time, so the head is never paid twice
+    private final AtomicBoolean serving = new AtomicBoolean();
+    private final AsyncAppender log;
+
+    // log == null: no logging
+    LockFreeBankAccount(AsyncAppender log) {
+        this.log = log;
+    }
+
+    public void deposit(int amount) {
+        long newBalance = balance.addAndGet(amount);
+        if (log != null) {
+            log.append("Deposited: " + amount + " New Balance: " + newBalance);
+        }
+        serveWaiters();
+    }
+
+    // Blocks until the amount can be withdrawn. Once queued, it is served after every withdrawal
+    // queued before it
+    public void withdraw(int amount) {
+        if (tryDeduct(amount)) {
+            return;
+        }
+        Waiter waiter = new Waiter(amount, Thread.currentThread());
+        waiters.add(waiter);
+        if (log != null) {
+            log.append("Waiting for sufficient balance...");
+        }
+        // A deposit may have landed before we were queued and found nobody to serve
+        serveWaiters();
+        boolean interrupted = false;
+        while (!waiter.granted) {
+            LockSupport.park(this);
+            // Like the monitor version, keep waiting when interrupted, but keep the flag
+            interrupted |= Thread.interrupted();
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (log != null) {
+            log.append("Withdrawn: " + amount + " New Balance: " + waiter.balanceAfter);
+        }
+    }
+
+    // Withdraws only if the funds are there and nobody seems to be waiting ahead; never blocks
+    public boolean tryWithdraw(int amount) {
+        return tryDeduct(amount);
+    }
+
+    public int getBalance() {
+        return (int) balance.get();
+    }
+
+    // Fails as soon as someone is queued, checked again on every retry so a waiter that joins
+    // while we spin on the CAS is not overtaken
+    private boolean tryDeduct(int amount) {
+        while (true) {
+            if (!waiters.isEmpty()) {
+                return false;
+            }
+            long current = balance.get();
+            if (current < amount) {
+                return false;
+            }
+            if (balance.compareAndSet(current, current - amount)) {
+                if (log != null) {
+                    log.append("Withdrawn: " + amount + " New Balance: " + (current - amount));
+                }
+                return true;
+            }
+        }
+    }
+
+    private void serveWaiters() {
+        while (canServeHead() && serving.compareAndSet(false, true)) {
+            try {
+                Waiter head;
+                while ((head = waiters.peek()) != null) {
+                    long current = balance.get();
+                    if (current < head.amount) {
+                        break;
+                    }
+                    if (balance.compareAndSet(current, current - head.amount)) {
+                        waiters.poll();
+                        head.balanceAfter = current - head.amount;
+                        head.granted = true;
+                        LockSupport.unpark(head.thread);
+                    }
+                }
+            } finally {
+                serving.set(false);
+            }
+            // Loop: a deposit that arrived while we were serving saw serving == true and left
+            // the work to us, so check once more after letting go
+        }
+    }
+
+    private boolean canServeHead() {
+        Waiter head = waiters.peek();
+        return head != null && balance.get() >= head.amount;
+    }
+
+    private static final class Waiter {
+        final int amount;
+        final Thread thread;
+        volatile boolean granted;
+        long balanceAfter;
+
+        Waiter(int amount, Thread thread) {
+            this.amount = amount;
+            this.thread = thread;
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.cache.LogStore;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+/**
+ * SegmentedLogStore with a byte budget and LRU / age eviction, for use as a disk cache tier.
+ *
+ * - An access-ordered map of every key (write time only, no values) sits in
+ *   front of the log. A miss is answered from that map alone, with no filesystem call;
+ *   a hit is a slice of the mapped segment.
+ * - When the live bytes in the log exceed maxBytes, least recently used keys are
+ *   deleted until it fits. Entries older than maxAge are dropped when they are read.
+ * - Deleted records are reclaimed by the log's compactor, so the files on disk stay
+ *   within roughly maxBytes / (1 - compaction threshold) plus one segment.
+ *
+ * Each value is stored with its write time in front, so after a restart the keys come
+ * back in write order (the best guess at recency) with their real age.
+ */
+public class BoundedLogStore implements Closeable {
+
+    private static final int TIMESTAMP_SIZE = 8;
+
+    private final SegmentedLogStore log;
+    private final long maxBytes;
+    private final long maxAgeMillis;
+
+    // Access order: eldest = least recently used. Guarded by itself
+    private final LinkedHashMap<String, Long> writeTimes = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+
+    /**
+     * @param maxBytes     budget for live records in the log
+     * @param maxAgeMillis entries older than this are treated as absent, 0 for no limit
+     */
+    public BoundedLogStore(Path directory, long maxBytes, long maxAgeMillis) throws IOException {
+        this(new SegmentedLogStore(directory), maxBytes, maxAgeMillis);
+    }
+
+    public BoundedLogStore(SegmentedLogStore log, long maxBytes, long maxAgeMillis) throws IOException {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("maxBytes must be positive: " + maxBytes);
+        }
+        this.log = log;
+        this.maxBytes = maxBytes;
+        this.maxAgeMillis = maxAgeMillis;
+        restoreOrder();
+        synchronized (writeTimes) {
+            evictToBudget(null);
+        }
+    }
+
+    // Read-only view of the value, or null if absent or expired
+    public ByteBuffer get(String key) throws IOException {
+        synchronized (writeTimes) {
+            Long writtenAt = writeTimes.get(key);
+            if (writtenAt == null) {
+                return null;
+            }
+            if (isExpired(writtenAt)) {
+                writeTimes.remove(key);
+                log.remove(key);
+                expirations.incrementAndGet();
+                return null;
+            }
+        }
+        ByteBuffer record = log.get(key);
+        if (record == null) {
+            // Evicted between the check above and the read
+            return null;
+        }
+        record.position(TIMESTAMP_SIZE);
+        return record.slice();
+    }
+
+    public boolean contains(String key) {
+        synchronized (writeTimes) {
+            // containsKey does not count as an access
+            return writeTimes.containsKey(key);
+        }
+    }
+
+    public void put(String key, byte[] value) throws IOException {
+        put(key, value, null);
+    }
+
+    /**
+     * Like put(key, value), and passes every entry evicted to make room to evicted (a
+     * read-only view of its value). The callback runs after the store's lock is released.
+     */
+    public void put(String key, byte[] value, BiConsumer<String, ByteBuffer> evicted) throws IOException {
+        long now = System.currentTimeMillis();
+        ByteBuffer record = ByteBuffer.allocate(TIMESTAMP_SIZE + value.length);
+        record.putLong(now).put(value).flip();
+        List<Map.Entry<String, ByteBuffer>> dropped = evicted == null ? null : new ArrayList<>();
+        synchronized (writeTimes) {
+            log.put(key, record);
+            writeTimes.put(key, now);
+            evictToBudget(dropped);
+        }
+        if (dropped != null) {
+            for (Map.Entry<String, ByteBuffer> entry : dropped) {
+                evicted.accept(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    public boolean remove(String key) throws IOException {
+        synchronized (writeTimes) {
+            writeTimes.remove(key);
+            return log.remove(key);
+        }
+    }
+
+    public int size() {
+        synchronized (writeTimes) {
+            return writeTimes.size();
+        }
+    }
+
+    public long liveBytes() {
+        return log.liveBytes();
+    }
+
+    public long usedBytes() {
+        return log.usedBytes();
+    }
+
+    public long maxBytes() {
+        return maxBytes;
+    }
+
+    public long evictions() {
+        return evictions.get();
+    }
+
+    public long expirations() {
+        return expirations.get();
+    }
+
+    @Override
+    public void close() throws IOException {
+        log.close();
+    }
+
+    // Must hold writeTimes. Evicted keys and values are added to dropped unless it is null
+    private void evictToBudget(List<Map.Entry<String, ByteBuffer>> dropped) throws IOException {
+        Iterator<String> eldest = writeTimes.keySet().iterator();
+        while (log.liveBytes() > maxBytes && eldest.hasNext()) {
+            String key = eldest.next();
+            eldest.remove();
+            if (dropped != null) {
+                // The view stays valid after the record is removed
+                ByteBuffer record = log.get(key);
+                if (record != null) {
+                    record.position(TIMESTAMP_SIZE);
+                    dropped.add(new AbstractMap.SimpleImmutableEntry<>(key, record.slice()));
+                }
+            }
+            log.remove(key);
+            evictions.incrementAndGet();
+        }
+    }
+
+    private boolean isExpired(long writtenAt) {
+        return maxAgeMillis > 0 && System.currentTimeMillis() - writtenAt > maxAgeMillis;
+    }
+
+    // Rebuild the LRU order from the write times stored with each value, oldest first
+    private void restoreOrder() throws IOException {
+        List<Map.Entry<String, Long>> entries = new ArrayList<>(log.size());
+        for (String key : log.keys()) {
+            ByteBuffer record = log.get(key);
+            if (record != null && record.remaining() >= TIMESTAMP_SIZE) {
+                entries.add(new AbstractMap.SimpleImmutableEntry<>(key, record.getLong(0)));
+            }
+        }
+        entries.sort(Map.Entry.comparingByValue());
+        synchronized (writeTimes) {
+            for (Map.Entry<String, Long> entry : entries) {
+                if (isExpired(entry.getValue())) {
+                    log.remove(entry.getKey());
+                    expirations.incrementAndGet();
+                } else {
+                    writeTimes.put(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,540 @@
+package com.cache.LogStore;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only key/value store made of a few large memory-mapped segment files.
+ *
+ * Instead of one file per key (an open/close per access and millions of directory
+ * entries), every put appends a record to the active segment and an in-memory index
+ * maps key -> (segment, offset, length). A read is a slice of the mapped buffer: no
+ * system call and no copy.
+ *
+ * Record layout:
+ *   int    record length (0 marks the end of the written part of a segment)
+ *   byte   type (PUT or DELETE)
+ *   int    CRC32 of the key and value bytes
+ *   short  key length (unsigned, so keys are limited to 65535 UTF-8 bytes), then the UTF-8 key
+ *   int    value length, then the value bytes
+ *
+ * On startup the segments are scanned in order to rebuild the index. Only keys are
+ * copied out, but every value byte is read to verify the record's checksum, so recovery
+ * reads the whole written part of each segment. A record with a bad length or checksum
+ * (a torn write at the tail) ends the scan of that segment.
+ *
+ * Overwritten and deleted records are dead space. A background task compacts sealed
+ * segments once their dead share passes a threshold: live records are copied into the
+ * active segment, which is forced to disk before the old file is deleted. Compaction runs
+ * one at a time, whether started by the background task or by compact(). A file that
+ * cannot be deleted yet (Windows refuses while a reader's slice still maps it) is retried
+ * on the next pass and on close; if it survives a restart, recovery replays it before the
+ * newer copies of its records, so it only costs space until it is compacted again.
+ */
+public class SegmentedLogStore implements Closeable {
+
+    public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+    private static final byte PUT = 1;
+    private static final byte DELETE = 2;
+    private static final int HEADER_SIZE = 4 + 1 + 4 + 2 + 4;
+    private static final int MAX_KEY_LENGTH = 0xffff;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final double compactionThreshold;
+    private final ConcurrentHashMap<String, Location> index = new ConcurrentHashMap<>();
+
+    // Oldest first; the last one is the active segment. Replaced only under writeLock
+    private final CopyOnWriteArrayList<Segment> segments = new CopyOnWriteArrayList<>();
+    private final Object writeLock = new Object();
+    // Held for a whole compaction pass, so two passes never copy the same segment
+    private final Object compactionLock = new Object();
+    private final ScheduledExecutorService compactor;
+    private final AtomicLong compactedSegments = new AtomicLong();
+    // Compacted segment files whose delete failed
+    private final ConcurrentLinkedQueue<Path> pendingDeletes = new ConcurrentLinkedQueue<>();
+    private volatile boolean closed;
+
+    public SegmentedLogStore(Path directory) throws IOException {
+        this(directory, DEFAULT_SEGMENT_SIZE, 0.5, TimeUnit.SECONDS.toMillis(30));
+    }
+
+    /**
+     * @param segmentSize            size of each mapped segment file in bytes
+     * @param compactionThreshold    dead share (0..1) at which a sealed segment is compacted
+     * @param compactionIntervalMillis how often the background compactor runs, 0 to disable
+     */
+    public SegmentedLogStore(Path directory, int segmentSize, double compactionThreshold,
+                             long compactionIntervalMillis) throws IOException {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.compactionThreshold = compactionThreshold;
+        Files.createDirectories(directory);
+        recover();
+        if (segments.isEmpty()) {
+            segments.add(Segment.create(segmentPath(0), 0, segmentSize));
+        }
+
+        if (compactionIntervalMillis > 0) {
+            this.compactor = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "log-store-compactor");
+                thread.setDaemon(true);
+                return thread;
+            });
+            compactor.scheduleWithFixedDelay(this::compactQuietly, compactionIntervalMillis,
+                compactionIntervalMillis, TimeUnit.MILLISECONDS);
+        } else {
+            this.compactor = null;
+        }
+    }
+
+    /**
+     * Returns a read-only view of the value, or null if the key is absent. The view stays
+     * valid after the record is overwritten or compacted away.
+     */
+    public ByteBuffer get(String key) {
+        Location location = index.get(key);
+        if (location == null) {
+            return null;
+        }
+        ByteBuffer view = location.segment.buffer.duplicate();
+        view.limit(location.valueOffset + location.valueLength).position(location.valueOffset);
+        return view.slice().asReadOnlyBuffer();
+    }
+
+    public boolean contains(String key) {
+        return index.containsKey(key);
+    }
+
+    public void put(String key, byte[] value) throws IOException {
+        put(key, ByteBuffer.wrap(value));
+    }
+
+    public void put(String key, ByteBuffer value) throws IOException {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        if (keyBytes.length > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Key is " + keyBytes.length + " UTF-8 bytes, the limit is " + MAX_KEY_LENGTH);
+        }
+        synchronized (writeLock) {
+            ensureOpen();
+            Location location = append(PUT, keyBytes, value);
+            Location previous = index.put(key, location);
+            if (previous != null) {
+                previous.segment.markDead(previous.recordSize);
+            }
+        }
+    }
+
+    public boolean remove(String key) throws IOException {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        synchronized (writeLock) {
+            ensureOpen();
+            Location previous = index.remove(key);
+            if (previous == null) {
+                return false;
+            }
+            previous.segment.markDead(previous.recordSize);
+            // The tombstone keeps the delete durable across restarts; it is dead space itself
+            Location tombstone = append(DELETE, keyBytes, ByteBuffer.allocate(0));
+            tombstone.segment.markDead(tombstone.recordSize);
+            return true;
+        }
+    }
+
+    public Set<String> keys() {
+        return index.keySet();
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    // Bytes held by records that are still referenced from the index
+    public long liveBytes() {
+        long live = 0;
+        for (Segment segment : segments) {
+            live += segment.liveBytes.get();
+        }
+        return live;
+    }
+
+    // Bytes appended to all segments, live or dead
+    public long usedBytes() {
+        long used = 0;
+        for (Segment segment : segments) {
+            used += segment.writePosition;
+        }
+        return used;
+    }
+
+    public int segmentCount() {
+        return segments.size();
+    }
+
+    public long compactedSegments() {
+        return compactedSegments.get();
+    }
+
+    // Flush the active segment's dirty pages to disk
+    public void sync() {
+        segments.get(segments.size() - 1).buffer.force();
+    }
+
+    /**
+     * Compacts every sealed segment whose dead share is at or above the threshold.
+     * Runs on the background compactor, but can also be called directly; a call made
+     * while a pass is running waits for it.
+     */
+    public void compact() throws IOException {
+        synchronized (compactionLock) {
+            deletePending();
+            for (Segment segment : segments) {
+                if (closed) {
+                    return;
+                }
+                if (segment != activeSegment() && segment.deadRatio() >= compactionThreshold) {
+                    compactSegment(segment);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (compactor != null) {
+            compactor.shutdown();
+            try {
+                compactor.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        synchronized (writeLock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            for (Segment segment : segments) {
+                segment.buffer.force();
+                segment.channel.close();
+            }
+        }
+        deletePending();
+    }
+
+    private void compactQuietly() {
+        try {
+            compact();
+        } catch (IOException e) {
+            System.err.println("Log store compaction failed in " + directory);
+            e.printStackTrace();
+        }
+    }
+
+    // Must hold compactionLock
+    private void compactSegment(Segment segment) throws IOException {
+        boolean oldest = segments.get(0) == segment;
+        // Segments that received copies, forced before the original goes away
+        Set<Segment> written = Collections.newSetFromMap(new IdentityHashMap<Segment, Boolean>());
+        ByteBuffer buffer = segment.buffer.duplicate();
+        int position = 0;
+        while (position < segment.writePosition) {
+            Record record = Record.read(buffer, position, segment.writePosition);
+            if (record == null) {
+                break;
+            }
+            String key = record.key();
+            synchronized (writeLock) {
+                if (closed) {
+                    return;
+                }
+                if (record.type == PUT) {
+                    Location current = index.get(key);
+                    if (current != null && current.segment == segment && current.recordOffset == position) {
+                        Location moved = append(PUT, record.keyBytes, record.value());
+                        index.put(key, moved);
+                        written.add(moved.segment);
+                    }
+                } else if (!oldest && !index.containsKey(key)) {
+                    // An older segment may still hold a PUT for this key, so the delete
+                    // has to outlive this segment
+                    Location tombstone = append(DELETE, record.keyBytes, ByteBuffer.allocate(0));
+                    tombstone.segment.markDead(tombstone.recordSize);
+                    written.add(tombstone.segment);
+                }
+            }
+            position += record.size;
+        }
+
+        for (Segment target : written) {
+            target.buffer.force();
+        }
+
+        synchronized (writeLock) {
+            segments.remove(segment);
+            segment.channel.close();
+            compactedSegments.incrementAndGet();
+        }
+        // Readers still holding a slice keep the mapping alive until it is collected
+        delete(segment.path);
+    }
+
+    private void deletePending() {
+        for (int i = pendingDeletes.size(); i > 0; i--) {
+            Path path = pendingDeletes.poll();
+            if (path == null) {
+                return;
+            }
+            delete(path);
+        }
+    }
+
+    private void delete(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            pendingDeletes.add(path);
+        }
+    }
+
+    // Must hold writeLock
+    private Location append(byte type, byte[] keyBytes, ByteBuffer value) throws IOException {
+        int valueLength = value.remaining();
+        int recordSize = HEADER_SIZE + keyBytes.length + valueLength;
+        Segment segment = activeSegment();
+        if (segment.remaining() < recordSize + 4) {
+            // Leave the 0 end marker in place and start a new segment; oversized records
+            // get a segment of their own
+            int size = Math.max(segmentSize, recordSize + 4);
+            segment.buffer.force();
+            segment = Segment.create(segmentPath(segment.id + 1), segment.id + 1, size);
+            segments.add(segment);
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(keyBytes, 0, keyBytes.length);
+        crc.update(value.duplicate());
+
+        int recordOffset = segment.writePosition;
+        ByteBuffer out = segment.buffer.duplicate();
+        out.position(recordOffset);
+        out.putInt(recordSize);
+        out.put(type);
+        out.putInt((int) crc.getValue());
+        out.putShort((short) keyBytes.length);
+        out.put(keyBytes);
+        out.putInt(valueLength);
+        int valueOffset = out.position();
+        out.put(value.duplicate());
+        // End marker, in case a torn write left garbage past the recovered tail
+        out.putInt(0);
+
+        segment.writePosition = recordOffset + recordSize;
+        segment.liveBytes.addAndGet(recordSize);
+        return new Location(segment, recordOffset, recordSize, valueOffset, valueLength);
+    }
+
+    private Segment activeSegment() {
+        return segments.get(segments.size() - 1);
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Log store is closed: " + directory);
+        }
+    }
+
+    // Map existing segments oldest first and replay their records into the index
+    private void recover() throws IOException {
+        List<Path> paths = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path path : stream) {
+                paths.add(path);
+            }
+        }
+        paths.sort((a, b) -> Long.compare(segmentId(a), segmentId(b)));
+
+        for (Path path : paths) {
+            Segment segment = Segment.open(path, segmentId(path));
+            ByteBuffer buffer = segment.buffer.duplicate();
+            int position = 0;
+            int limit = buffer.capacity();
+            while (true) {
+                Record record = Record.read(buffer, position, limit);
+                if (record == null) {
+                    break;
+                }
+                String key = record.key();
+                Location previous;
+                if (record.type == PUT) {
+                    segment.liveBytes.addAndGet(record.size);
+                    previous = index.put(key, new Location(segment, position, record.size,
+                        record.valueOffset, record.valueLength));
+                } else {
+                    previous = index.remove(key);
+                }
+                if (previous != null) {
+                    previous.segment.markDead(previous.recordSize);
+                }
+                position += record.size;
+            }
+            segment.writePosition = position;
+            segments.add(segment);
+        }
+    }
+
+    private Path segmentPath(long id) {
+        return directory.resolve(String.format("%s%08d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX));
+    }
+
+    private static long segmentId(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static final class Segment {
+        final Path path;
+        final long id;
+        final FileChannel channel;
+        final MappedByteBuffer buffer;
+        final AtomicLong liveBytes = new AtomicLong();
+
+        // Advanced under writeLock, read by stats and compaction
+        volatile int writePosition;
+
+        private Segment(Path path, long id, FileChannel channel, MappedByteBuffer buffer) {
+            this.path = path;
+            this.id = id;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        static Segment create(Path path, long id, int size) throws IOException {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+            return new Segment(path, id, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+        }
+
+        static Segment open(Path path, long id) throws IOException {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            return new Segment(path, id, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size()));
+        }
+
+        int remaining() {
+            return buffer.capacity() - writePosition;
+        }
+
+        void markDead(int recordSize) {
+            liveBytes.addAndGet(-recordSize);
+        }
+
+        double deadRatio() {
+            int written = writePosition;
+            return written == 0 ? 0 : 1.0 - (double) liveBytes.get() / written;
+        }
+    }
+
+    private static final class Location {
+        final Segment segment;
+        final int recordOffset;
+        final int recordSize;
+        final int valueOffset;
+        final int valueLength;
+
+        Location(Segment segment, int recordOffset, int recordSize, int valueOffset, int valueLength) {
+            this.segment = segment;
+            this.recordOffset = recordOffset;
+            this.recordSize = recordSize;
+            this.valueOffset = valueOffset;
+            this.valueLength = valueLength;
+        }
+    }
+
+    // A record parsed in place; only the key is copied out
+    private static final class Record {
+        final ByteBuffer buffer;
+        final byte type;
+        final int size;
+        final byte[] keyBytes;
+        final int valueOffset;
+        final int valueLength;
+
+        private Record(ByteBuffer buffer, byte type, int size, byte[] keyBytes, int valueOffset, int valueLength) {
+            this.buffer = buffer;
+            this.type = type;
+            this.size = size;
+            this.keyBytes = keyBytes;
+            this.valueOffset = valueOffset;
+            this.valueLength = valueLength;
+        }
+
+        // Returns null at the end marker or at the first corrupt record
+        static Record read(ByteBuffer buffer, int position, int limit) {
+            if (position + HEADER_SIZE > limit) {
+                return null;
+            }
+            int size = buffer.getInt(position);
+            if (size < HEADER_SIZE || position + size > limit) {
+                return null;
+            }
+            byte type = buffer.get(position + 4);
+            int checksum = buffer.getInt(position + 5);
+            int keyLength = buffer.getShort(position + 9) & 0xffff;
+            if ((type != PUT && type != DELETE) || HEADER_SIZE + keyLength > size) {
+                return null;
+            }
+            byte[] keyBytes = new byte[keyLength];
+            ByteBuffer view = buffer.duplicate();
+            view.position(position + 11);
+            view.get(keyBytes);
+            int valueLength = view.getInt();
+            int valueOffset = view.position();
+            if (HEADER_SIZE + keyLength + valueLength != size) {
+                return null;
+            }
+
+            CRC32 crc = new CRC32();
+            crc.update(keyBytes, 0, keyLength);
+            view.limit(valueOffset + valueLength);
+            crc.update(view);
+            if ((int) crc.getValue() != checksum) {
+                return null;
+            }
+            return new Record(buffer, type, size, keyBytes, valueOffset, valueLength);
+        }
+
+        String key() {
+            return new String(keyBytes, StandardCharsets.UTF_8);
+        }
+
+        ByteBuffer value() {
+            ByteBuffer view = buffer.duplicate();
+            view.limit(valueOffset + valueLength).position(valueOffset);
+            return view;
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.cache;
+
+import java.util.Arrays;
+
+/**
+ * Capacity-bounded cache keyed by primitive longs. Same layout and CLOCK eviction as
+ * IntClockCache, with a long[] of keys.
+ *
+ * get() and put() allocate nothing. Not thread-safe; see ConcurrentLongClockCache.
+ */
+public class LongClockCache<V> {
+
+    private static final int EMPTY = -1;
+
+    private final int capacity;
+    private final long[] keys;
+    private final Object[] values;
+    private final boolean[] referenced;
+    private final int[] table;
+    private final int tableMask;
+    private int size;
+    private int hand;
+
+    public LongClockCache(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.keys = new long[capacity];
+        this.values = new Object[capacity];
+        this.referenced = new boolean[capacity];
+
+        int tableSize = 2;
+        while (tableSize < capacity * 2) {
+            tableSize <<= 1;
+        }
+        this.table = new int[tableSize];
+        this.tableMask = tableSize - 1;
+        Arrays.fill(table, EMPTY);
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        int index = indexOf(key);
+        if (index == EMPTY) {
+            return null;
+        }
+        int slot = table[index];
+        referenced[slot] = true;
+        return (V) values[slot];
+    }
+
+    /**
+     * Slot holding key, or -1. Side-effect free and safe to run while a writer changes the
+     * segment (an optimistic read): each table cell is read once and bounds-checked, and
+     * the probe is bounded, so a torn table yields a wrong answer for the caller's stamp
+     * validation to reject rather than an exception.
+     */
+    int peekSlot(long key) {
+        int i = hash(key) & tableMask;
+        for (int probes = 0; probes <= tableMask; probes++) {
+            int slot = table[i];
+            if (slot == EMPTY) {
+                return EMPTY;
+            }
+            if (slot >= 0 && slot < capacity && keys[slot] == key) {
+                return slot;
+            }
+            i = (i + 1) & tableMask;
+        }
+        return EMPTY;
+    }
+
+    // Value in a slot returned by peekSlot; null if the slot was emptied since
+    @SuppressWarnings("unchecked")
+    V valueAt(int slot) {
+        return (V) values[slot];
+    }
+
+    // Record a hit on a slot returned by peekSlot
+    void markReferenced(int slot) {
+        referenced[slot] = true;
+    }
+
+    public boolean containsKey(long key) {
+        return indexOf(key) != EMPTY;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        if (value == null) {
+            throw new NullPointerException();
+        }
+        int index = indexOf(key);
+        if (index != EMPTY) {
+            int slot = table[index];
+            V oldValue = (V) values[slot];
+            values[slot] = value;
+            referenced[slot] = true;
+            return oldValue;
+        }
+
+        int slot = size < capacity ? size++ : evict();
+        keys[slot] = key;
+        values[slot] = value;
+        referenced[slot] = false;
+
+        int i = hash(key) & tableMask;
+        while (table[i] != EMPTY) {
+            i = (i + 1) & tableMask;
+        }
+        table[i] = slot;
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        int index = indexOf(key);
+        if (index == EMPTY) {
+            return null;
+        }
+        int slot = table[index];
+        V oldValue = (V) values[slot];
+        deleteAt(index);
+
+        // Keep the slots dense by moving the last entry into the hole
+        int last = --size;
+        if (slot != last) {
+            keys[slot] = keys[last];
+            values[slot] = values[last];
+            referenced[slot] = referenced[last];
+            table[indexOf(keys[slot])] = slot;
+        }
+        values[last] = null;
+        if (hand >= size) {
+            hand = 0;
+        }
+        return oldValue;
+    }
+
+    public void clear() {
+        Arrays.fill(table, EMPTY);
+        Arrays.fill(values, null);
+        Arrays.fill(referenced, false);
+        size = 0;
+        hand = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    // Sweep the CLOCK hand until an unreferenced slot is found, unmap it and return it
+    private int evict() {
+        while (referenced[hand]) {
+            referenced[hand] = false;
+            hand = (hand + 1) % capacity;
+        }
+        int victim = hand;
+        hand = (hand + 1) % capacity;
+        deleteAt(indexOf(keys[victim]));
+        values[victim] = null;
+        return victim;
+    }
+
+    // Position of the key in the table, or EMPTY
+    private int indexOf(long key) {
+        int i = hash(key) & tableMask;
+        int slot;
+        while ((slot = table[i]) != EMPTY) {
+            if (keys[slot] == key) {
+                return i;
+            }
+            i = (i + 1) & tableMask;
+        }
+        return EMPTY;
+    }
+
+    // Backward-shift deletion: pull later entries of the probe run into the gap
+    private void deleteAt(int index) {
+        int gap = index;
+        int i = index;
+        while (true) {
+            i = (i + 1) & tableMask;
+            int slot = table[i];
+            if (slot == EMPTY) {
+                break;
+            }
+            int home = hash(keys[slot]) & tableMask;
+            // The entry can move into the gap unless its home lies cyclically in (gap, i]
+            boolean stays = gap <= i ? (gap < home && home <= i) : (gap < home || home <= i);
+            if (!stays) {
+                table[gap] = slot;
+                gap = i;
+            }
+        }
+        table[gap] = EMPTY;
+    }
+
+    static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        int x = (int) (h ^ (h >>> 32));
+        return x ^ (x >>> 16);
+    }
+}
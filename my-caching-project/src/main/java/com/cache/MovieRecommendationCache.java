@@ -297,22 +297,19 @@ public class MovieRecommendationCache {
     // Therefore, LinkedHashMap is the correct choice for implementing an LRU cache in this scenario.
 
     //L2 Cache Implementation
+    // popularMovieCache is filled by bulk scans, so it opts into TinyLFU admission:
+    // a scanned movie only replaces a cached one if it has been seen more often.
     private static final int MAX_ENTRIES_L2 = 1000;
-    private final Map<String, String> popularMovieCache =
-        new LinkedHashMap<String, String>(MAX_ENTRIES_L2, 0.75f, true){
-            protected boolean removeEldestEntry(Map.Entry<String, String> eldest){
-                return size() > MAX_ENTRIES_L2;
-            }
-        };
+    private final Map<String, String> popularMovieCache = new MyLRUCache<>(MAX_ENTRIES_L2, true);
     
     public static void main(String[] args) {
         // LRU Cache for recent movies
         Map<String, String> recentMovieCache = 
           new LinkedHashMap<String, String>(100, 0.75f, true);
         
-        // LRU Cache for popular movies
-        Map<String, String> popularMovieCache = 
-          new LinkedHashMap<String, String>(1000, 0.75f, true);      
+        // LRU Cache for popular movies, with TinyLFU admission so the bulk load below
+        // cannot flush movies that are already cached
+        Map<String, String> popularMovieCache = new MyLRUCache<>(1000, true);
           
         String[] genres = {"Action", "Comedy", "Drama", "Horror", "Romance", "Sci-Fi", "Thriller"};
         Random random = new Random();
@@ -0,0 +1,199 @@
+package com.cache;
+
+import java.util.*;
+import java.util.Map;
+
+import com.google.common.collect.Iterators;
+
+// Wraps its LinkedHashMaps rather than extending one, so that with admission enabled every
+// Map method (views, bulk operations, equals/toString) sees both regions
+public class MyLRUCache<K,V> extends AbstractMap<K,V>{
+
+    private final int capacity;
+
+    // Main region, in access order (eldest = least recently used). Without admission it is
+    // the whole cache and evicts its eldest entry itself
+    private final LinkedHashMap<K,V> main;
+
+    // Optional W-TinyLFU admission (null when the cache is plain LRU).
+    // New entries land in a small window LRU first; when the window overflows its eldest
+    // entry only enters the main LRU if the frequency sketch says it is hotter than the
+    // main region's eviction victim. One-off scans die in the window instead of flushing
+    // the hot set.
+    private final FrequencySketch sketch;
+    private final LinkedHashMap<K,V> window;
+    private final int windowCapacity;
+
+    private Set<Map.Entry<K,V>> entrySet;
+
+    public MyLRUCache(int capacity){
+        this(capacity, false);
+    }
+
+    public MyLRUCache(int capacity, boolean admissionFilter){
+        this.capacity = capacity;
+        final boolean evictsItself = !(admissionFilter && capacity > 1);
+        this.main = new LinkedHashMap<K,V>(capacity, 0.75f, true){
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K,V> eldest){
+                // With admission enabled the main region is trimmed by admit() instead
+                return evictsItself && size() > MyLRUCache.this.capacity;
+            }
+        };
+        if(!evictsItself){
+            // ~1% of the capacity goes to the window, as in W-TinyLFU
+            this.windowCapacity = Math.max(1, capacity / 100);
+            this.window = new LinkedHashMap<>(windowCapacity, 0.75f, true);
+            this.sketch = new FrequencySketch(capacity);
+        }else{
+            this.windowCapacity = 0;
+            this.window = null;
+            this.sketch = null;
+        }
+    }
+
+    @Override
+    public V get(Object key){
+        if(sketch == null){
+            return main.get(key);
+        }
+        sketch.increment(key);
+        V value = main.get(key);
+        return value != null ? value : window.get(key);
+    }
+
+    @Override
+    public V put(K key, V value){
+        if(sketch == null){
+            return main.put(key, value);
+        }
+        sketch.increment(key);
+        if(main.containsKey(key)){
+            return main.put(key, value);
+        }
+        V oldValue = window.put(key, value);
+        if(window.size() > windowCapacity){
+            Map.Entry<K,V> eldest = window.entrySet().iterator().next();
+            K candidateKey = eldest.getKey();
+            V candidateValue = eldest.getValue();
+            window.remove(candidateKey);
+            admit(candidateKey, candidateValue);
+        }
+        return oldValue;
+    }
+
+    // Move a window victim into the main region if it beats the main region's LRU victim
+    private void admit(K candidateKey, V candidateValue){
+        int mainCapacity = capacity - windowCapacity;
+        if(main.size() < mainCapacity){
+            main.put(candidateKey, candidateValue);
+            return;
+        }
+        K victimKey = main.keySet().iterator().next();
+        if(sketch.frequency(candidateKey) > sketch.frequency(victimKey)){
+            main.remove(victimKey);
+            main.put(candidateKey, candidateValue);
+        }
+    }
+
+    @Override
+    public boolean containsKey(Object key){
+        return main.containsKey(key) || (window != null && window.containsKey(key));
+    }
+
+    @Override
+    public V remove(Object key){
+        if(window == null || main.containsKey(key)){
+            return main.remove(key);
+        }
+        return window.remove(key);
+    }
+
+    @Override
+    public int size(){
+        return window == null ? main.size() : main.size() + window.size();
+    }
+
+    @Override
+    public void clear(){
+        main.clear();
+        if(window != null){
+            window.clear();
+        }
+    }
+
+    // Main region from least to most recently used, then the window the same way.
+    // Iterating does not count as access; removing through the iterator is supported
+    @Override
+    public Set<Map.Entry<K,V>> entrySet(){
+        if(window == null){
+            return main.entrySet();
+        }
+        if(entrySet == null){
+            entrySet = new AbstractSet<Map.Entry<K,V>>(){
+                @Override
+                public Iterator<Map.Entry<K,V>> iterator(){
+                    return Iterators.concat(main.entrySet().iterator(), window.entrySet().iterator());
+                }
+
+                @Override
+                public int size(){
+                    return MyLRUCache.this.size();
+                }
+
+                @Override
+                public void clear(){
+                    MyLRUCache.this.clear();
+                }
+            };
+        }
+        return entrySet;
+    }
+
+    // Hooks for unit tests: which region holds key
+    boolean inWindow(Object key){
+        return window != null && window.containsKey(key);
+    }
+
+    boolean inMain(Object key){
+        return main.containsKey(key);
+    }
+
+    public static void main(String[] args){
+        MyLRUCache<String, String> cache = new MyLRUCache<>(3);
+        cache.put("key 1", "value 1");
+        cache.put("key 2", "value 2");
+        cache.put("key 3", "value 3");
+        System.out.println(cache);
+
+        cache.get("key 2");
+        cache.put("key 4", "value 4");
+        cache.put("key 5", "value 5");
+        System.out.println(cache);
+
+        // Hot set of 50 keys, each round followed by a one-off scan of 200 keys
+        System.out.println("Plain LRU hit rate under scans: " + scanHitRate(new MyLRUCache<>(100)) + "%");
+        System.out.println("TinyLFU hit rate under scans:   " + scanHitRate(new MyLRUCache<>(100, true)) + "%");
+    }
+
+    private static double scanHitRate(MyLRUCache<String, String> cache){
+        int hits = 0;
+        int lookups = 0;
+        int scanKey = 0;
+        for(int round = 0; round < 1000; round++){
+            for(int i = 0; i < 50; i++){
+                String hotKey = "Hot" + i;
+                lookups++;
+                if(cache.get(hotKey) != null){
+                    hits++;
+                }else{
+                    cache.put(hotKey, "value");
+                }
+            }
+            for(int i = 0; i < 200; i++){
+                cache.put("Movie" + scanKey++, "Scan");
+            }
+        }
+        return 100.0 * hits / lookups;
+    }
+}
@@ -0,0 +1,18 @@
+package com.cache;
+
+class Product {
+    private String name;
+
+    public Product(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String toString() {
+        return "Product{name='" + name + "'}";
+    }
+}
@@ -1,69 +1,117 @@
 package com.cache;
 
-import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
-class Product {
-    private String name;
-
-    public Product(String name) {
-        this.name = name;
-    }
-
-    public String getName() {
-        return name;
-    }
-
-    @Override
-    public String toString() {
-        return "Product{name='" + name + "'}";
-    }
-}
-
+/**
+ * Exclusive two-level cache: a key lives in L1 or in L2, never both, so the effective
+ * capacity is L1 + L2.
+ *
+ * - Both levels are LRU (access-ordered LinkedHashMaps).
+ * - A new entry goes into L1; the L1 entry it pushes out is demoted into L2 instead of
+ *   being dropped. Only L2's LRU entry ever leaves the cache.
+ * - An L2 hit promotes the entry back into L1 (which may demote another one).
+ *
+ * All methods are synchronized on the cache: promotion and demotion move entries between
+ * the two maps and have to happen atomically.
+ */
 public class TwoLevelCache {
-    private Map<String, Product> l1Cache;
-    private Map<String, Product> l2Cache;
-    private int L1Capacity;
-    private int l2Capacity;
+    private final LinkedHashMap<String, Product> l1Cache;
+    private final LinkedHashMap<String, Product> l2Cache;
+    private final int L1Capacity;
+    private final int l2Capacity;
     private int l1Hits;
     private int l2Hits;
     private int misses;
+    private int demotions;
+    private int evictions;
 
     public TwoLevelCache(int L1Capacity, int l2Capacity) {
-        this.l1Cache = new HashMap<>(L1Capacity);
-        this.l2Cache = new HashMap<>(l2Capacity);
+        if (L1Capacity <= 0 || l2Capacity < 0) {
+            throw new IllegalArgumentException("Invalid capacities: L1 " + L1Capacity + ", L2 " + l2Capacity);
+        }
+        this.l1Cache = new LinkedHashMap<>(16, 0.75f, true);
+        this.l2Cache = new LinkedHashMap<>(16, 0.75f, true);
         this.L1Capacity = L1Capacity;
         this.l2Capacity = l2Capacity;
     }
 
-    public Product get(String key) {
-        if (l1Cache.containsKey(key)) {
+    public synchronized Product get(String key) {
+        Product product = l1Cache.get(key);
+        if (product != null) {
             l1Hits++;
-            return l1Cache.get(key);
-        } else if (l2Cache.containsKey(key)) {
+            return product;
+        }
+        product = l2Cache.remove(key);
+        if (product != null) {
             l2Hits++;
-            put(key, l2Cache.get(key)); // Fetch from L2 and update L1
-            return l2Cache.get(key);
+            // Promote back into L1
+            putInL1(key, product);
+            return product;
         }
         misses++;
         return null; // Return null if not found
     }
 
-    public void put(String key, Product value) {
-        if (l1Cache.size() >= L1Capacity) {
-            // Evict the oldest entry from L1 if it's full
-            String oldestKey = l1Cache.keySet().iterator().next();
-            l1Cache.remove(oldestKey);
-        }
+    public synchronized void put(String key, Product value) {
+        // Keep the levels exclusive: an update of an L2 entry moves it to L1
+        l2Cache.remove(key);
+        putInL1(key, value);
+    }
+
+    public synchronized Product remove(String key) {
+        Product removed = l1Cache.remove(key);
+        return removed != null ? removed : l2Cache.remove(key);
+    }
+
+    public synchronized int size() {
+        return l1Cache.size() + l2Cache.size();
+    }
+
+    public synchronized int l1Size() {
+        return l1Cache.size();
+    }
+
+    public synchronized int l2Size() {
+        return l2Cache.size();
+    }
+
+    private void putInL1(String key, Product value) {
         l1Cache.put(key, value);
-        l2Cache.putIfAbsent(key, value); // Add to L2 if not present
+        if (l1Cache.size() > L1Capacity) {
+            // Demote the least recently used L1 entry instead of throwing it away
+            Iterator<Map.Entry<String, Product>> eldest = l1Cache.entrySet().iterator();
+            Map.Entry<String, Product> victim = eldest.next();
+            eldest.remove();
+            demotions++;
+            putInL2(victim.getKey(), victim.getValue());
+        }
+    }
+
+    private void putInL2(String key, Product value) {
+        if (l2Capacity == 0) {
+            evictions++;
+            return;
+        }
+        l2Cache.put(key, value);
+        if (l2Cache.size() > l2Capacity) {
+            Iterator<String> eldest = l2Cache.keySet().iterator();
+            eldest.next();
+            eldest.remove();
+            evictions++;
+        }
     }
 
-    public void printStats() {
+    public synchronized void printStats() {
+        int lookups = l1Hits + l2Hits + misses;
         System.out.println("L1 Hits: " + l1Hits);
         System.out.println("L2 Hits: " + l2Hits);
         System.out.println("Misses: " + misses);
-        System.out.printf("L1 Hit Rate: %.2f%%\n", (l1Hits + l2Hits) > 0 ? (100.0 * l1Hits / (l1Hits + l2Hits + misses)) : 0);
+        System.out.println("Demotions: " + demotions + ", Evictions: " + evictions);
+        System.out.println("L1 Size: " + l1Cache.size() + "/" + L1Capacity + ", L2 Size: " + l2Cache.size() + "/" + l2Capacity);
+        System.out.printf("L1 Hit Rate: %.2f%%\n", lookups > 0 ? (100.0 * l1Hits / lookups) : 0);
+        System.out.printf("Total Hit Rate: %.2f%%\n", lookups > 0 ? (100.0 * (l1Hits + l2Hits) / lookups) : 0);
     }
 
     public static void main(String[] args) {
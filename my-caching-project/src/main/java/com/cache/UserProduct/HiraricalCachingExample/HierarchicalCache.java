@@ -1,16 +1,76 @@
 package com.cache.UserProduct.HiraricalCachingExample;
 
+import com.cache.LogStore.BoundedLogStore;
+import com.cache.codec.Codec;
+import com.cache.codec.JavaSerializationCodec;
 import com.google.common.cache.*;
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
-public class HierarchicalCache {
+public class HierarchicalCache implements Closeable {
     private final Cache<String, Product> l1Cache;
     private final Cache<String, Product> l2Cache;
     private final Path l3CcaheDir;
+    // File format for L3. Defaults to Java serialization so existing l3 directories stay
+    // readable; pass a ProductCodec for files about a quarter of the size that are much faster to read.
+    private final Codec<Product> codec;
+    // Bounded L3: products packed into a few segment files with an in-memory index, an
+    // LRU byte budget and an age limit. null = the original one-file-per-key layout,
+    // which grows without bound.
+    private final BoundedLogStore l3Store;
+
+    // Optional Bloom filter over the file-per-key L3: a key the filter has never seen has
+    // no file, so the miss returns without a Files.exists call
+    private volatile BloomFilter<String> l3Filter;
+    private final AtomicLong l3FilterNegatives = new AtomicLong();
+    private final AtomicLong l3FilterFalsePositives = new AtomicLong();
+
+    // Async API: L3 reads and writes run on a fixed pool of I/O threads (created on first use)
+    // so request threads never wait on the disk. Concurrent loads of one key share a future,
+    // and writes to one key are chained so they reach L3 in order.
+    private final int ioThreads;
+    private volatile ExecutorService ioExecutor;
+    private final ConcurrentHashMap<String, CompletableFuture<Product>> inFlightLoads = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, CompletableFuture<Void>> pendingWrites = new ConcurrentHashMap<>();
+
+    // Write-back mode (off by default): put only updates L1/L2 and marks the key dirty.
+    // A single flusher thread writes dirty products to L3 when L2 evicts them and, in batches,
+    // once per durability window. Repeated puts of a dirty key just replace the value.
+    private volatile ScheduledExecutorService writeBackFlusher;
+    private final ConcurrentHashMap<String, Product> dirty = new ConcurrentHashMap<>();
+    private final AtomicLong coalescedPuts = new AtomicLong();
+    private final AtomicLong writeBackWrites = new AtomicLong();
+    private final AtomicLong demotionWrites = new AtomicLong();
+    private final AtomicLong writeBackBatches = new AtomicLong();
+    private final AtomicLong failedWriteBacks = new AtomicLong();
 
     public HierarchicalCache(int l1Size, int l2Size, String l3Path) throws IOException{
+        this(l1Size, l2Size, l3Path, new JavaSerializationCodec<>(Product.class));
+    }
+
+    public HierarchicalCache(int l1Size, int l2Size, String l3Path, Codec<Product> codec) throws IOException{
+        this(l1Size, l2Size, l3Path, codec, null);
+    }
+
+    // Bounded L3: keep at most l3MaxBytes of products on disk, dropping the least recently
+    // used first; products older than l3MaxAgeMillis (0 = no limit) count as missing
+    public HierarchicalCache(int l1Size, int l2Size, String l3Path, Codec<Product> codec,
+                             long l3MaxBytes, long l3MaxAgeMillis) throws IOException{
+        this(l1Size, l2Size, l3Path, codec, new BoundedLogStore(Paths.get(l3Path), l3MaxBytes, l3MaxAgeMillis));
+    }
+
+    private HierarchicalCache(int l1Size, int l2Size, String l3Path, Codec<Product> codec,
+                              BoundedLogStore l3Store) throws IOException{
+        this.codec = codec;
+        this.l3Store = l3Store;
+        this.ioThreads = Math.max(2, Runtime.getRuntime().availableProcessors());
         this.l1Cache = CacheBuilder.newBuilder()
         .maximumSize(l1Size)
         .expireAfterWrite(1, TimeUnit.MINUTES)
@@ -21,6 +81,7 @@ public class HierarchicalCache {
         .maximumSize(l2Size)
         .expireAfterWrite(5,TimeUnit.MINUTES)
         .recordStats()
+        .removalListener((RemovalListener<String, Product>) this::onL2Removal)
         .build();
 
         this.l3CcaheDir = Paths.get(l3Path);
@@ -38,15 +99,44 @@ public class HierarchicalCache {
             l1Cache.put(key, product);
             return product;
         }
+        return loadFromL3(key);
+    }
+
+    // L3 lookup plus promotion into L2 and L1; blocking disk I/O
+    private Product loadFromL3(String key) throws IOException{
+        // In write-back mode the newest version may not have reached L3 yet
+        Product product = dirty.get(key);
+        if(product != null){
+            l2Cache.put(key, product);
+            l1Cache.put(key, product);
+            return product;
+        }
+        if(l3Store != null){
+            // A miss here is answered by the in-memory index; a hit is one read of a mapped segment
+            ByteBuffer record = l3Store.get(key);
+            if(record == null){
+                return null;
+            }
+            product = codec.decode(record);
+            l2Cache.put(key, product);
+            l1Cache.put(key, product);
+            return product;
+        }
 
+        BloomFilter<String> filter = l3Filter;
+        if(filter != null && !filter.mightContain(key)){
+            l3FilterNegatives.incrementAndGet();
+            return null;
+        }
         Path filePath = l3CcaheDir.resolve(key);
         if(Files.exists(filePath)){
-            try(ObjectInputStream ois = new ObjectInputStream(Files.newInputStream(filePath))){
-                product = (Product) ois.readObject();
-                l2Cache.put(key, product);
-                l1Cache.put(key, product);
-                return product;
-            }
+            product = codec.decode(Files.readAllBytes(filePath));
+            l2Cache.put(key, product);
+            l1Cache.put(key, product);
+            return product;
+        }
+        if(filter != null){
+            l3FilterFalsePositives.incrementAndGet();
         }
         return null;
     }
@@ -54,15 +144,311 @@ public class HierarchicalCache {
         public void put(String key, Product value) throws IOException{
             l1Cache.put(key, value);
             l2Cache.put(key, value);
+            if(writeBackFlusher != null){
+                markDirty(key, value);
+                return;
+            }
+            writeToL3(key, value);
+        }
 
+        private void writeToL3(String key, Product value) throws IOException{
+            if(l3Store != null){
+                l3Store.put(key, codec.encode(value));
+                return;
+            }
             Path filePath = l3CcaheDir.resolve(key);
-            try(ObjectOutputStream oos = new ObjectOutputStream(Files.newOutputStream(filePath))){
-                oos.writeObject(value);
+            Files.write(filePath, codec.encode(value));
+            BloomFilter<String> filter = l3Filter;
+            if(filter != null){
+                filter.put(key);
+            }
+        }
+
+        // Non-blocking get: L1/L2 hits complete inline, an L3 lookup (and promotion) runs on the
+        // I/O pool. Callers missing on the same key get the same future. A lookup waits for any
+        // putAsync of that key still in flight, so it never reads an older version from disk.
+        public CompletableFuture<Product> getAsync(String key){
+            Product product = l1Cache.getIfPresent(key);
+            if(product != null){
+                return CompletableFuture.completedFuture(product);
+            }
+            product = l2Cache.getIfPresent(key);
+            if(product != null){
+                l1Cache.put(key, product);
+                return CompletableFuture.completedFuture(product);
+            }
+
+            CompletableFuture<Product> load = new CompletableFuture<>();
+            CompletableFuture<Product> inFlight = inFlightLoads.putIfAbsent(key, load);
+            if(inFlight != null){
+                return inFlight;
             }
+            // Unregistered before it completes, so a caller woken by the result never gets the
+            // same (possibly failed) future back from its next getAsync
+            Runnable task = () -> {
+                Product loaded;
+                try{
+                    loaded = loadFromL3(key);
+                }catch(Throwable t){
+                    inFlightLoads.remove(key, load);
+                    load.completeExceptionally(t);
+                    return;
+                }
+                inFlightLoads.remove(key, load);
+                load.complete(loaded);
+            };
+            try{
+                CompletableFuture<Void> write = pendingWrites.get(key);
+                if(write == null){
+                    ioExecutor().execute(task);
+                }else{
+                    write.whenCompleteAsync((ignored, failure) -> task.run(), ioExecutor());
+                }
+            }catch(RejectedExecutionException e){
+                inFlightLoads.remove(key, load);
+                load.completeExceptionally(e);
+            }
+            return load;
+        }
+
+        // Non-blocking put: L1 and L2 are updated before this returns, the L3 write runs on the
+        // I/O pool. The future completes once the product is in L3.
+        public CompletableFuture<Void> putAsync(String key, Product value){
+            l1Cache.put(key, value);
+            l2Cache.put(key, value);
+            if(writeBackFlusher != null){
+                markDirty(key, value);
+                return CompletableFuture.completedFuture(null);
+            }
+
+            CompletableFuture<Void> write = pendingWrites.compute(key, (k, previous) -> {
+                // Run after the previous write of this key, whether or not it failed
+                CompletableFuture<Void> after = previous == null
+                    ? CompletableFuture.completedFuture(null)
+                    : previous.handle((ignored, failure) -> null);
+                return after.thenRunAsync(() -> {
+                    try{
+                        writeToL3(key, value);
+                    }catch(IOException e){
+                        throw new CompletionException(e);
+                    }
+                }, ioExecutor());
+            });
+            // Registered outside compute: the write may already be done and the callback would
+            // otherwise modify the map from inside its own compute
+            write.whenComplete((ignored, failure) -> pendingWrites.remove(key, write));
+            return write;
+        }
+
+        private ExecutorService ioExecutor(){
+            ExecutorService executor = ioExecutor;
+            if(executor == null){
+                synchronized(this){
+                    executor = ioExecutor;
+                    if(executor == null){
+                        AtomicInteger threadNumber = new AtomicInteger();
+                        executor = Executors.newFixedThreadPool(ioThreads, r -> {
+                            Thread thread = new Thread(r, "hierarchical-cache-io-" + threadNumber.incrementAndGet());
+                            thread.setDaemon(true);
+                            return thread;
+                        });
+                        ioExecutor = executor;
+                    }
+                }
+            }
+            return executor;
+        }
+
+        // Switch put/putAsync to write-back. durabilityWindowMillis bounds how long a product can
+        // live only in memory: dirty products are written at least that often, and as soon as
+        // L2 evicts them. Call before the cache is shared between threads.
+        public HierarchicalCache enableWriteBack(long durabilityWindowMillis){
+            if(writeBackFlusher == null){
+                ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+                    Thread thread = new Thread(r, "hierarchical-cache-write-back");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+                flusher.scheduleWithFixedDelay(this::flushDirty, durabilityWindowMillis,
+                    durabilityWindowMillis, TimeUnit.MILLISECONDS);
+                writeBackFlusher = flusher;
+            }
+            return this;
+        }
+
+        // Returns once every put made before the call is in L3
+        public void flush() throws IOException{
+            ScheduledExecutorService flusher = writeBackFlusher;
+            int failed = 0;
+            try{
+                if(flusher != null){
+                    failed = flusher.submit((Callable<Integer>) this::flushDirty).get();
+                }else{
+                    CompletableFuture.allOf(pendingWrites.values().toArray(new CompletableFuture<?>[0])).get();
+                }
+            }catch(InterruptedException e){
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while flushing to L3");
+            }catch(ExecutionException e){
+                throw new IOException("Failed to flush to L3", e.getCause());
+            }
+            if(failed > 0){
+                throw new IOException(failed + " products could not be written to L3");
+            }
+        }
+
+        private void markDirty(String key, Product value){
+            if(dirty.put(key, value) != null){
+                coalescedPuts.incrementAndGet();
+            }
+        }
+
+        // Demotion: a dirty product leaving L2 is written right away (on the flusher thread,
+        // not on the thread whose put caused the eviction)
+        private void onL2Removal(RemovalNotification<String, Product> notification){
+            ScheduledExecutorService flusher = writeBackFlusher;
+            String key = notification.getKey();
+            if(flusher == null || !notification.wasEvicted() || key == null || !dirty.containsKey(key)){
+                return;
+            }
+            try{
+                flusher.execute(() -> {
+                    try{
+                        if(writeBack(key)){
+                            demotionWrites.incrementAndGet();
+                        }
+                    }catch(IOException e){
+                        // Still dirty: the next timer batch retries it
+                        failedWriteBacks.incrementAndGet();
+                        System.err.println("Failed to write back product to L3: " + key);
+                        e.printStackTrace();
+                    }
+                });
+            }catch(RejectedExecutionException e){
+                // Shutting down: close() flushes everything that is still dirty
+            }
+        }
+
+        // Timer batch; runs on the flusher thread only, so writes of one key never reorder.
+        // Returns the number of products that failed (they stay dirty and are retried).
+        private int flushDirty(){
+            if(dirty.isEmpty()){
+                return 0;
+            }
+            int failed = 0;
+            for(String key : dirty.keySet()){
+                try{
+                    writeBack(key);
+                }catch(IOException e){
+                    failed++;
+                    failedWriteBacks.incrementAndGet();
+                    System.err.println("Failed to write back product to L3: " + key);
+                    e.printStackTrace();
+                }
+            }
+            writeBackBatches.incrementAndGet();
+            return failed;
+        }
+
+        // A put that lands while the write is running leaves the key dirty for the next round
+        private boolean writeBack(String key) throws IOException{
+            Product value = dirty.get(key);
+            if(value == null){
+                return false;
+            }
+            writeToL3(key, value);
+            dirty.remove(key, value);
+            writeBackWrites.incrementAndGet();
+            return true;
+        }
+
+        // Build a Bloom filter from the files already in L3 and keep it up to date on put.
+        // Call before the cache is shared between threads. Products are never deleted from
+        // the file layout, so a plain (non-counting) filter stays exact about negatives.
+        // No-op for the bounded L3, whose in-memory index already answers misses.
+        public HierarchicalCache enableL3Filter(int expectedProducts, double falsePositiveRate) throws IOException{
+            if(l3Store != null){
+                return this;
+            }
+            BloomFilter<String> filter = BloomFilter.create(
+                Funnels.stringFunnel(StandardCharsets.UTF_8), expectedProducts, falsePositiveRate);
+            try(DirectoryStream<Path> files = Files.newDirectoryStream(l3CcaheDir)){
+                for(Path file : files){
+                    filter.put(file.getFileName().toString());
+                }
+            }
+            l3Filter = filter;
+            return this;
+        }
+
+        // Share of L3 lookups for absent keys that the filter failed to rule out
+        public double getL3FilterFalsePositiveRate(){
+            long falsePositives = l3FilterFalsePositives.get();
+            long absent = falsePositives + l3FilterNegatives.get();
+            return absent == 0 ? 0 : (double) falsePositives / absent;
         }
 
         public void printStats(){
             System.out.println("L1 Cache State: "+ l1Cache.stats());
             System.out.println("L2 Cache Stats: " + l2Cache.stats());
+            if(l3Store != null){
+                System.out.println("L3 Store: " + l3Store.size() + " products, " + l3Store.liveBytes() + " / "
+                    + l3Store.maxBytes() + " bytes live, " + l3Store.usedBytes() + " bytes on disk, "
+                    + l3Store.evictions() + " evictions, " + l3Store.expirations() + " expirations");
+            }
+            if(writeBackFlusher != null){
+                System.out.println("Write-back: " + dirty.size() + " dirty, " + writeBackWrites.get() + " written in "
+                    + writeBackBatches.get() + " batches, " + demotionWrites.get() + " on demotion, "
+                    + coalescedPuts.get() + " puts coalesced, " + failedWriteBacks.get() + " failed");
+            }
+            BloomFilter<String> filter = l3Filter;
+            if(filter != null){
+                System.out.println("L3 Filter: " + l3FilterNegatives.get() + " misses skipped, "
+                    + l3FilterFalsePositives.get() + " false positives, measured false positive rate "
+                    + String.format("%.4f", getL3FilterFalsePositiveRate())
+                    + " (predicted " + String.format("%.4f", filter.expectedFpp()) + ")");
+            }
+        }
+
+        @Override
+        public void close() throws IOException{
+            // A failed flush still shuts everything down; its error is rethrown at the end
+            IOException flushFailure = null;
+            try{
+                ScheduledExecutorService flusher = writeBackFlusher;
+                if(flusher != null){
+                    try{
+                        flush();
+                    }finally{
+                        flusher.shutdown();
+                    }
+                }
+            }catch(IOException e){
+                flushFailure = e;
+            }finally{
+                // Let queued async writes reach L3 before the store is closed
+                ExecutorService executor = ioExecutor;
+                if(executor != null){
+                    executor.shutdown();
+                    try{
+                        executor.awaitTermination(1, TimeUnit.MINUTES);
+                    }catch(InterruptedException e){
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                if(l3Store != null){
+                    try{
+                        l3Store.close();
+                    }catch(IOException e){
+                        if(flushFailure == null){
+                            throw e;
+                        }
+                        flushFailure.addSuppressed(e);
+                    }
+                }
+            }
+            if(flushFailure != null){
+                throw flushFailure;
+            }
         }
     }
\ No newline at end of file
@@ -1,6 +1,10 @@
 package com.cache.UserProduct.HiraricalCachingExample;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 import com.google.common.base.Stopwatch;
 
@@ -10,14 +14,23 @@ public class HierarchicalCacheTest {
     private static final int TEST_ITERATIONS = 1000000;
 
     public static void main(String[] args) throws IOException, ClassNotFoundException{
-        HierarchicalCache cache = new HierarchicalCache(100,1000,"l3cache"); 
+        // Bounded L3: products packed into segment files under l3store, at most 16 MB live, 1 hour max age
+        HierarchicalCache cache = new HierarchicalCache(100, 1000, "l3store", new ProductCodec(),
+            16L * 1024 * 1024, TimeUnit.HOURS.toMillis(1));
+        // Write-back: puts go to L1/L2 and reach L3 when demoted from L2 or within 1 second
+        cache.enableWriteBack(1000);
         
         System.out.println("Populating cache:");
+        long populateStart = System.currentTimeMillis();
         for(int i = 0; i < TOTAL_PRODUCTS; i++){
             String id = "PROD" + i;
             cache.put(id, DataGenerator.geneProduct(id));
             
         }
+        long populateTime = System.currentTimeMillis() - populateStart;
+        cache.flush();
+        System.out.println("Populated " + TOTAL_PRODUCTS + " products in " + populateTime + "ms, flushed to L3 after "
+            + (System.currentTimeMillis() - populateStart) + "ms");
 
         System.out.println("Testing random access...");
 
@@ -40,5 +53,19 @@ public class HierarchicalCacheTest {
         long endTime = System.currentTimeMillis();
         System.out.println("Total time for " + TEST_ITERATIONS + "random accesses:" + (endTime - startTime) + "ms");
         cache.printStats();
+
+        // Same lookups through getAsync: the calling thread only issues requests, L3 reads run on the I/O pool
+        System.out.println("Testing async access...");
+        startTime = System.currentTimeMillis();
+        List<CompletableFuture<Product>> lookups = new ArrayList<>(TEST_ITERATIONS);
+        for(int i = 0; i < TEST_ITERATIONS; i++){
+            lookups.add(cache.getAsync(DataGenerator.generateRandomId(TOTAL_PRODUCTS)));
+        }
+        long issuedTime = System.currentTimeMillis();
+        CompletableFuture.allOf(lookups.toArray(new CompletableFuture<?>[0])).join();
+        endTime = System.currentTimeMillis();
+        System.out.println("Issued " + TEST_ITERATIONS + " async lookups in " + (issuedTime - startTime)
+            + "ms, all complete after " + (endTime - startTime) + "ms");
+        cache.close();
     }
 }
@@ -13,6 +13,18 @@ public class Product implements Serializable {
         this.price = price;
     }
 
+    public String getId(){
+        return id;
+    }
+
+    public String getName(){
+        return name;
+    }
+
+    public double getPrice(){
+        return price;
+    }
+
     @Override
     public String toString(){
         return "Product{id = '" + id + "', name = '" +name + "', price =" + price + "}";
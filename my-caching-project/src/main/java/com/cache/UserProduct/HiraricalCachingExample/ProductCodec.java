@@ -0,0 +1,36 @@
+package com.cache.UserProduct.HiraricalCachingExample;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+import com.cache.codec.BinaryReader;
+import com.cache.codec.BinaryWriter;
+import com.cache.codec.Codec;
+
+/**
+ * Binary Product format: length-prefixed UTF-8 id and name, then the price as a double.
+ * About a quarter of the size of the Java-serialized form.
+ */
+public class ProductCodec implements Codec<Product> {
+
+    @Override
+    public byte[] encode(Product product) {
+        return BinaryWriter.get()
+            .putString(product.getId())
+            .putString(product.getName())
+            .putDouble(product.getPrice())
+            .toByteArray();
+    }
+
+    @Override
+    public Product decode(ByteBuffer buffer) throws IOException {
+        try {
+            String id = BinaryReader.getString(buffer);
+            String name = BinaryReader.getString(buffer);
+            return new Product(id, name, buffer.getDouble());
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new IOException("Corrupt product record", e);
+        }
+    }
+}
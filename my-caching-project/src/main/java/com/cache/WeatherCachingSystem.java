@@ -1,122 +1,141 @@
-package com.cache.WeatherDataCachingSystem;
-
-import java.io.Serializable;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
-import java.util.concurrent.atomic.AtomicInteger;
-
-// WeatherData class implementing Serializable with transient fields
-class WeatherData implements Serializable{
-    private static final long serialVersionUID = 1L;
-
-    private String condition;
-    private double temperature;
-    private transient double humidity;  // Not saved during serialization
-
-    public WeatherData(String condition, double temperature, double humidity) {
-        this.condition = condition;
-        this.temperature = temperature;
-        this.humidity = humidity;
-    }
-
-    @Override
-    public String toString(){
-        return "Condition: " + condition + ", Temperature: " + temperature + "°C";
-    } 
-}
-
-// Cache class using ConcurrentHashMap and AtomicInteger for cache size management
-
-class WeatherCache{
-    private final ConcurrentHashMap<String, WeatherData> cache = new ConcurrentHashMap<>();
-    private final AtomicInteger cacheSize = new AtomicInteger(0);
-    private final int MAX_CACHE_SIZE = 5;
-
-    public WeatherData getWeatherData(String location){
-        return cache.get(location);
-
-    }
-
-    public void addWeatherData(String location, WeatherData data){
-        if(cacheSize.get() < MAX_CACHE_SIZE){
-            cache.put(location, data);
-            cacheSize.incrementAndGet();
-        }else{
-            System.out.println("Cache full, not adding new data.");
-        }
-    }
-
-    public boolean isCached(String location){
-        return cache.containsKey(location);
-    }
-
-    public void clearCache(){
-        cache.clear();
-        cacheSize.set(0);
-    }
-}
-
-// WeatherService class simulating API fetch, caching, and handling multi-threaded requests
-class WeatherService{
-    private final WeatherCache cache = new WeatherCache();
-    private final ExecutorService executor = Executors.newFixedThreadPool(3);
-     // Method to retrieve weather data, either from cache or simulated API
-     public Future<WeatherData> getWeather(final String location){
-        return executor.submit(() -> {
-            if(cache.isCached(location)){
-                System.out.println("Fetching from cache for location: " + location);
-                return cache.getWeatherData(location);
-            }else{
-                System.out.println("Fetching from API for location: " + location);
-                WeatherData data = fetchWeatherFromAPI(location);
-                    cache.addWeatherData(location, data);
-                    return data;
-                }   
-        });
-     }
-    // Simulated API call to fetch weather data
-    private WeatherData fetchWeatherFromAPI(String location) throws InterruptedException{
-        Thread.sleep(1000);
-        return new WeatherData("Sunny", Math.random() * 35, Math.random() * 100); // Random weather data
-
-    }
-
-    public void shutdownService(){
-        executor.shutdown();
-    }
-
-}
-
-public class WeatherCachingSystem{
-    public static void main(String[] args) throws Exception{
-        WeatherService service = new WeatherService();
-
-        
-        try {
-
-         // Multiple threads fetching weather data using Future and ExecutorService
-         Future<WeatherData> future1 = service.getWeather("London");
-         Future<WeatherData> future2 = service.getWeather("Paris");
-         Future<WeatherData> future3 = service.getWeather("New York");
-         Future<WeatherData> future4 = service.getWeather("Tokyo");
-         Future<WeatherData> future5 = service.getWeather("Berlin");
-         Future<WeatherData> future6 = service.getWeather("London"); // Cached
- 
-         // Fetch and print results
-         System.out.println("Weather in London: " + future1.get());
-         System.out.println("Weather in Paris: " + future2.get());
-         System.out.println("Weather in New York: " + future3.get());
-         System.out.println("Weather in Tokyo: " + future4.get());
-         System.out.println("Weather in Berlin: " + future5.get());
-         System.out.println("Weather in London (cached): " + future6.get());
-        }catch (Exception e) {
-            System.err.println("An error occurred: " + e.getMessage());
-            e.printStackTrace();
-        } finally {
-            service.shutdownService();
-    
-    }
-}
- }
+package com.cache.WeatherDataCachingSystem;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+public class WeatherCachingSystem{
+    public static void main(String[] args) throws Exception{
+        WeatherService service = new WeatherService();
+
+        
+        try {
+
+         // Multiple threads fetching weather data using Future and ExecutorService
+         Future<WeatherData> future1 = service.getWeather("London");
+         Future<WeatherData> future2 = service.getWeather("Paris");
+         Future<WeatherData> future3 = service.getWeather("New York");
+         Future<WeatherData> future4 = service.getWeather("Tokyo");
+         Future<WeatherData> future5 = service.getWeather("Berlin");
+         Future<WeatherData> future6 = service.getWeather("London"); // Cached
+ 
+         // Fetch and print results
+         System.out.println("Weather in London: " + future1.get());
+         System.out.println("Weather in Paris: " + future2.get());
+         System.out.println("Weather in New York: " + future3.get());
+         System.out.println("Weather in Tokyo: " + future4.get());
+         System.out.println("Weather in Berlin: " + future5.get());
+         System.out.println("Weather in London (cached): " + future6.get());
+        }catch (Exception e) {
+            System.err.println("An error occurred: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            service.shutdownService();
+    
+    }
+        refreshAheadLatency();
+        virtualThreadFanOut();
+        batchingThroughput();
+        historyQueries();
+}
+
+    // A day of per-minute readings in a 24 hour ring: 8 bytes a sample, no object per reading
+    private static void historyQueries(){
+        WeatherHistory history = new WeatherHistory(24 * 60);
+        long start = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(2);
+        long minute = TimeUnit.MINUTES.toMillis(1);
+        // Two days recorded, so the first day has been overwritten
+        for(int i = 0; i < 2 * 24 * 60; i++){
+            double hourOfDay = (i % (24 * 60)) / 60.0;
+            double temperature = 15 + 8 * Math.sin((hourOfDay - 9) / 24 * 2 * Math.PI);
+            history.record("London", start + i * minute, temperature, 80 - 2 * temperature);
+        }
+        long end = start + 2 * 24 * 60 * minute;
+        System.out.println("London samples kept: " + history.size("London") + " (" + history.size("London") * 8 + " bytes)");
+        System.out.println("London last hour: " + history.summarize("London", end - TimeUnit.HOURS.toMillis(1), end));
+        System.out.println("London last day:  " + history.summarize("London", end - TimeUnit.DAYS.toMillis(1), end));
+    }
+
+    // 30 misses at once through the fixed pool of 3: one API call each, 3 at a time, against
+    // batching (20ms window, up to 50 locations), which sends them as a single request
+    private static void batchingThroughput() throws Exception{
+        List<String> locations = new ArrayList<>();
+        for(int i = 0; i < 30; i++){
+            locations.add("City" + i);
+        }
+        WeatherService unbatched = new WeatherService();
+        WeatherService batched = new WeatherService().enableBatching(20, 50);
+        for(WeatherService service : new WeatherService[]{unbatched, batched}){
+            long start = System.currentTimeMillis();
+            service.getWeather(locations);
+            long elapsed = System.currentTimeMillis() - start;
+            System.out.printf("%s: %d locations, %d API calls, %dms, %.1f locations/s%n",
+                service == batched ? "Batched" : "Unbatched", locations.size(), service.getApiCalls(),
+                elapsed, locations.size() * 1000.0 / elapsed);
+            service.shutdownService();
+        }
+    }
+
+    // 2000 locations requested at once: each miss gets its own (virtual) thread, so all the
+    // 1 second API calls overlap. The fixed pool of 3 would need over 11 minutes for the same request
+    private static void virtualThreadFanOut() throws Exception{
+        WeatherService service = new WeatherService(WeatherService.Execution.VIRTUAL_THREADS);
+        List<String> locations = new ArrayList<>();
+        for(int i = 0; i < 2000; i++){
+            locations.add("Location" + i);
+        }
+        long start = System.currentTimeMillis();
+        Map<String, WeatherData> weather = service.getWeather(locations);
+        System.out.println("Fetched " + weather.size() + " locations concurrently in "
+            + (System.currentTimeMillis() - start) + "ms on "
+            + (service.usesVirtualThreads() ? "virtual threads" : "platform threads (virtual threads need Java 21)"));
+        service.shutdownService();
+    }
+
+    // Popular locations read continuously for 6 seconds: with a 1s soft TTL, a 3s hard TTL and a 1s API,
+    // every refresh happens in the background and no read waits for the API
+    private static void refreshAheadLatency() throws Exception{
+        final String[] locations = {"London", "Paris", "Tokyo"};
+        final WeatherService service = new WeatherService(1000, 3000, TimeUnit.MINUTES.toMillis(1));
+        for(String location : locations){
+            service.getWeather(location).get();
+        }
+        final int readers = 4;
+        final int readsPerReader = 20000;
+        final long[][] latencies = new long[readers][readsPerReader];
+        Thread[] threads = new Thread[readers];
+        for(int t = 0; t < readers; t++){
+            final long[] mine = latencies[t];
+            threads[t] = new Thread(() -> {
+                try{
+                    for(int i = 0; i < readsPerReader; i++){
+                        long start = System.nanoTime();
+                        service.getWeather(locations[i % locations.length]).get();
+                        mine[i] = System.nanoTime() - start;
+                        LockSupport.parkNanos(300_000);
+                    }
+                }catch(Exception e){
+                    throw new IllegalStateException(e);
+                }
+            });
+            threads[t].start();
+        }
+        for(Thread thread : threads){
+            thread.join();
+        }
+        service.shutdownService();
+
+        long[] all = new long[readers * readsPerReader];
+        for(int t = 0; t < readers; t++){
+            System.arraycopy(latencies[t], 0, all, t * readsPerReader, readsPerReader);
+        }
+        Arrays.sort(all);
+        System.out.printf("Refresh-ahead: %d reads, p50=%.1fus p99=%.1fus max=%.1fus, %d background refreshes%n",
+            all.length, all[all.length / 2] / 1000.0, all[(int) (all.length * 0.99)] / 1000.0,
+            all[all.length - 1] / 1000.0, service.getRefreshes() - locations.length);
+    }
+ }
@@ -0,0 +1,185 @@
+package com.cache.WeatherDataCachingSystem;
+
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel for entry expiry (Varghese and Lauck).
+ *
+ * Time is cut into ticks of tickMillis. Level 0 has one slot per tick for the next 64
+ * ticks, level 1 one slot per 64 ticks, level 2 one per 64^2 ticks, and so on; 11 levels
+ * cover every long tick value. A timer goes into the level of the highest 6-bit group in
+ * which its deadline tick differs from the current tick. When the clock enters a new
+ * group at some level, that level's slot is cascaded: its timers move down a level
+ * (closer to their deadline). Level 0 slots are expired in place.
+ *
+ * schedule, cancel and reschedule are O(1); advance is O(ticks passed + timers
+ * expired or cascaded), so expiring many entries costs O(1) each and nothing scans
+ * the whole cache.
+ *
+ * Not thread-safe: the owner calls everything under its own lock.
+ */
+class TimingWheel<T> {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = (Long.SIZE + SLOT_BITS - 1) / SLOT_BITS;
+
+    private final long tickMillis;
+    // Circular list heads, one per slot
+    private final Timer<T>[][] wheels;
+    private long currentTick;
+    private int size;
+
+    TimingWheel(long tickMillis, long nowMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("tickMillis must be positive: " + tickMillis);
+        }
+        this.tickMillis = tickMillis;
+        this.currentTick = nowMillis / tickMillis;
+        // Generic array creation is not allowed; every slot holds a Timer<T> list head
+        @SuppressWarnings("unchecked")
+        Timer<T>[][] wheels = (Timer<T>[][]) new Timer<?>[LEVELS][SLOTS];
+        this.wheels = wheels;
+        for (int level = 0; level < LEVELS; level++) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                Timer<T> head = new Timer<>(null);
+                head.prev = head;
+                head.next = head;
+                wheels[level][slot] = head;
+            }
+        }
+    }
+
+    // Fire value once the clock passes deadlineMillis (at tick granularity)
+    Timer<T> schedule(T value, long deadlineMillis) {
+        Timer<T> timer = new Timer<>(value);
+        timer.deadlineTick = toTick(deadlineMillis);
+        place(timer, currentTick + 1);
+        size++;
+        return timer;
+    }
+
+    void reschedule(Timer<T> timer, long deadlineMillis) {
+        if (timer.next != null) {
+            unlink(timer);
+        } else {
+            // Already fired or cancelled: schedule it again
+            size++;
+        }
+        timer.deadlineTick = toTick(deadlineMillis);
+        place(timer, currentTick + 1);
+    }
+
+    void cancel(Timer<T> timer) {
+        if (timer.next != null) {
+            unlink(timer);
+            size--;
+        }
+    }
+
+    // Move the clock to nowMillis, passing every timer that came due to expired.
+    // The callback may schedule new timers but must not cancel other pending ones.
+    void advance(long nowMillis, Consumer<? super T> expired) {
+        long targetTick = nowMillis / tickMillis;
+        if (size == 0) {
+            // Nothing scheduled: skip the idle ticks instead of walking through them
+            currentTick = Math.max(currentTick, targetTick);
+            return;
+        }
+        while (currentTick < targetTick) {
+            long tick = ++currentTick;
+            // Entering a new group at level l (all lower bits zero): cascade its slot, top down
+            int highest = 0;
+            while (highest + 1 < LEVELS && (tick & ((1L << (SLOT_BITS * (highest + 1))) - 1)) == 0) {
+                highest++;
+            }
+            for (int level = highest; level >= 1; level--) {
+                cascade(wheels[level][slotIndex(tick, level)]);
+            }
+            expire(wheels[0][(int) (tick & SLOT_MASK)], expired);
+            if (size == 0) {
+                currentTick = Math.max(currentTick, targetTick);
+                return;
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        for (Timer<T>[] wheel : wheels) {
+            for (Timer<T> head : wheel) {
+                head.prev = head;
+                head.next = head;
+            }
+        }
+        size = 0;
+    }
+
+    private long toTick(long millis) {
+        // Round up so a timer never fires before its deadline
+        return (millis + tickMillis - 1) / tickMillis;
+    }
+
+    // earliestTick: currentTick + 1 for new timers (the current slot has been processed),
+    // currentTick while cascading (the current level 0 slot is expired right after)
+    private void place(Timer<T> timer, long earliestTick) {
+        long deadline = Math.max(timer.deadlineTick, earliestTick);
+        int level = (Long.SIZE - 1 - Long.numberOfLeadingZeros(deadline ^ currentTick)) / SLOT_BITS;
+        Timer<T> head = wheels[level][slotIndex(deadline, level)];
+        timer.prev = head.prev;
+        timer.next = head;
+        head.prev.next = timer;
+        head.prev = timer;
+    }
+
+    private void cascade(Timer<T> head) {
+        Timer<T> timer = head.next;
+        head.prev = head;
+        head.next = head;
+        while (timer != head) {
+            Timer<T> next = timer.next;
+            place(timer, currentTick);
+            timer = next;
+        }
+    }
+
+    private void expire(Timer<T> head, Consumer<? super T> expired) {
+        Timer<T> timer = head.next;
+        head.prev = head;
+        head.next = head;
+        while (timer != head) {
+            Timer<T> next = timer.next;
+            timer.prev = null;
+            timer.next = null;
+            size--;
+            expired.accept(timer.value);
+            timer = next;
+        }
+    }
+
+    private void unlink(Timer<T> timer) {
+        timer.prev.next = timer.next;
+        timer.next.prev = timer.prev;
+        timer.prev = null;
+        timer.next = null;
+    }
+
+    private static int slotIndex(long tick, int level) {
+        return (int) ((tick >>> (SLOT_BITS * level)) & SLOT_MASK);
+    }
+
+    static final class Timer<T> {
+        final T value;
+        long deadlineTick;
+        Timer<T> prev;
+        Timer<T> next;
+
+        Timer(T value) {
+            this.value = value;
+        }
+    }
+}
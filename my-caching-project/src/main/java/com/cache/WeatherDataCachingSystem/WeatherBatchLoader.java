@@ -0,0 +1,161 @@
+package com.cache.WeatherDataCachingSystem;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Micro-batching in front of a multi-location weather endpoint.
+ *
+ * Loads that arrive within windowMillis of the first one in a batch, up to maxBatchSize
+ * locations, are sent as one fetchBatch call; each caller's future is completed from the
+ * combined result. A batch is sent as soon as it is full, otherwise when the window
+ * closes, so a lone miss waits at most windowMillis longer than it would have.
+ *
+ * Callers are expected to deduplicate locations themselves (WeatherService does, one
+ * fetch per location); a location loaded twice in one batch is requested once and both
+ * futures get the result.
+ */
+class WeatherBatchLoader {
+
+    interface BatchFetcher {
+        // Weather for each location; locations missing from the result fail their loads
+        Map<String, WeatherData> fetchBatch(Collection<String> locations) throws Exception;
+    }
+
+    private final BatchFetcher fetcher;
+    private final Executor executor;
+    private final long windowMillis;
+    private final int maxBatchSize;
+    private final ScheduledExecutorService timer;
+
+    // Guarded by this
+    private Map<String, CompletableFuture<WeatherData>> pending = new LinkedHashMap<>();
+    private long batchNumber;
+
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong loads = new AtomicLong();
+
+    /**
+     * @param executor runs the fetchBatch calls, so several batches can be in flight
+     */
+    WeatherBatchLoader(BatchFetcher fetcher, Executor executor, long windowMillis, int maxBatchSize) {
+        if (windowMillis < 0 || maxBatchSize <= 0) {
+            throw new IllegalArgumentException("Need windowMillis >= 0 and maxBatchSize > 0");
+        }
+        this.fetcher = fetcher;
+        this.executor = executor;
+        this.windowMillis = windowMillis;
+        this.maxBatchSize = maxBatchSize;
+        this.timer = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "weather-batch-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    CompletableFuture<WeatherData> load(String location) {
+        loads.incrementAndGet();
+        Map<String, CompletableFuture<WeatherData>> full = null;
+        CompletableFuture<WeatherData> result;
+        synchronized (this) {
+            result = pending.get(location);
+            if (result != null) {
+                return result;
+            }
+            result = new CompletableFuture<>();
+            pending.put(location, result);
+            if (pending.size() >= maxBatchSize) {
+                full = takePending();
+            } else if (pending.size() == 1) {
+                // First load of a new batch opens the window
+                final long batch = batchNumber;
+                timer.schedule(() -> flush(batch), windowMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+        if (full != null) {
+            dispatch(full);
+        }
+        return result;
+    }
+
+    long getBatches() {
+        return batches.get();
+    }
+
+    long getLoads() {
+        return loads.get();
+    }
+
+    // Sends whatever is pending and stops the window timer
+    void shutdown() {
+        Map<String, CompletableFuture<WeatherData>> batch;
+        synchronized (this) {
+            batch = takePending();
+        }
+        if (!batch.isEmpty()) {
+            dispatch(batch);
+        }
+        timer.shutdown();
+    }
+
+    // Window closed for batch number `batch`; a no-op if that batch was already sent because it filled up
+    private void flush(long batch) {
+        Map<String, CompletableFuture<WeatherData>> expired;
+        synchronized (this) {
+            if (batch != batchNumber || pending.isEmpty()) {
+                return;
+            }
+            expired = takePending();
+        }
+        dispatch(expired);
+    }
+
+    // Must hold this
+    private Map<String, CompletableFuture<WeatherData>> takePending() {
+        Map<String, CompletableFuture<WeatherData>> batch = pending;
+        pending = new LinkedHashMap<>();
+        batchNumber++;
+        return batch;
+    }
+
+    private void dispatch(Map<String, CompletableFuture<WeatherData>> batch) {
+        batches.incrementAndGet();
+        try {
+            executor.execute(() -> fetch(batch));
+        } catch (RuntimeException e) {
+            // Executor shut down or saturated: fail the loads instead of leaving them hanging
+            for (CompletableFuture<WeatherData> load : batch.values()) {
+                load.completeExceptionally(e);
+            }
+        }
+    }
+
+    private void fetch(Map<String, CompletableFuture<WeatherData>> batch) {
+        Map<String, WeatherData> results;
+        try {
+            results = fetcher.fetchBatch(new ArrayList<>(batch.keySet()));
+        } catch (Exception e) {
+            for (CompletableFuture<WeatherData> load : batch.values()) {
+                load.completeExceptionally(e);
+            }
+            return;
+        }
+        for (Map.Entry<String, CompletableFuture<WeatherData>> load : batch.entrySet()) {
+            WeatherData data = results.get(load.getKey());
+            if (data != null) {
+                load.getValue().complete(data);
+            } else {
+                load.getValue().completeExceptionally(
+                    new IllegalStateException("No weather returned for " + load.getKey()));
+            }
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.cache.WeatherDataCachingSystem;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+// Cache class with per-entry expiry and LRU eviction.
+// Expiry is driven by a hierarchical timing wheel, advanced on every call, so expiring
+// any number of entries costs O(1) each and no thread ever scans the whole cache.
+// At capacity the least recently used location is evicted to make room, so the cache keeps
+// serving fresh data for any number of locations. All state is guarded by one lock, which
+// also makes size() exact.
+
+class WeatherCache{
+    private static final int DEFAULT_MAX_CACHE_SIZE = 5;
+    private static final long DEFAULT_TTL_MILLIS = TimeUnit.MINUTES.toMillis(10);
+    private static final long TICK_MILLIS = 100;
+
+    // Access order: eldest = least recently used
+    private final LinkedHashMap<String, CacheEntry> cache = new LinkedHashMap<>(16, 0.75f, true);
+    private final TimingWheel<CacheEntry> expiryWheel;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final int maxCacheSize;
+    private final long ttlMillis;
+    private final LongSupplier clock;
+    private long evictions;
+    private long expirations;
+
+    public WeatherCache(){
+        this(DEFAULT_MAX_CACHE_SIZE, DEFAULT_TTL_MILLIS);
+    }
+
+    public WeatherCache(int maxCacheSize, long ttlMillis){
+        this(maxCacheSize, ttlMillis, System::currentTimeMillis);
+    }
+
+    WeatherCache(int maxCacheSize, long ttlMillis, LongSupplier clock){
+        if(maxCacheSize <= 0 || ttlMillis <= 0){
+            throw new IllegalArgumentException("maxCacheSize and ttlMillis must be positive");
+        }
+        this.maxCacheSize = maxCacheSize;
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+        this.expiryWheel = new TimingWheel<>(TICK_MILLIS, clock.getAsLong());
+    }
+
+    // Returns null if the location is not cached or its data has expired
+    public WeatherData getWeatherData(String location){
+        lock.lock();
+        try{
+            long now = expireEntries();
+            CacheEntry entry = cache.get(location);
+            // The wheel works in ticks, so check the exact deadline as well
+            if(entry == null || entry.expiresAt <= now){
+                return null;
+            }
+            return entry.data;
+        }finally{
+            lock.unlock();
+        }
+    }
+
+    // Like getWeatherData, but also says when the data was added, so callers can apply their own staleness rules
+    CachedWeather getCachedWeather(String location){
+        lock.lock();
+        try{
+            long now = expireEntries();
+            CacheEntry entry = cache.get(location);
+            if(entry == null || entry.expiresAt <= now){
+                return null;
+            }
+            return new CachedWeather(entry.data, entry.addedAt);
+        }finally{
+            lock.unlock();
+        }
+    }
+
+    public void addWeatherData(String location, WeatherData data){
+        lock.lock();
+        try{
+            long now = expireEntries();
+            long expiresAt = now + ttlMillis;
+            CacheEntry entry = cache.get(location);
+            if(entry != null){
+                entry.data = data;
+                entry.addedAt = now;
+                entry.expiresAt = expiresAt;
+                expiryWheel.reschedule(entry.timer, expiresAt);
+                return;
+            }
+            entry = new CacheEntry(location, data, now, expiresAt);
+            entry.timer = expiryWheel.schedule(entry, expiresAt);
+            cache.put(location, entry);
+            if(cache.size() > maxCacheSize){
+                Iterator<CacheEntry> eldest = cache.values().iterator();
+                CacheEntry victim = eldest.next();
+                eldest.remove();
+                expiryWheel.cancel(victim.timer);
+                evictions++;
+            }
+        }finally{
+            lock.unlock();
+        }
+    }
+
+    public boolean isCached(String location){
+        lock.lock();
+        try{
+            long now = expireEntries();
+            CacheEntry entry = cache.get(location);
+            return entry != null && entry.expiresAt > now;
+        }finally{
+            lock.unlock();
+        }
+    }
+
+    public int size(){
+        lock.lock();
+        try{
+            expireEntries();
+            return cache.size();
+        }finally{
+            lock.unlock();
+        }
+    }
+
+    public long getEvictions(){
+        lock.lock();
+        try{
+            return evictions;
+        }finally{
+            lock.unlock();
+        }
+    }
+
+    public long getExpirations(){
+        lock.lock();
+        try{
+            return expirations;
+        }finally{
+            lock.unlock();
+        }
+    }
+
+    public void clearCache(){
+        lock.lock();
+        try{
+            cache.clear();
+            expiryWheel.clear();
+        }finally{
+            lock.unlock();
+        }
+    }
+
+    // Must hold lock. Returns the current time
+    private long expireEntries(){
+        long now = clock.getAsLong();
+        expiryWheel.advance(now, entry -> {
+            cache.remove(entry.location);
+            expirations++;
+        });
+        return now;
+    }
+
+    static final class CachedWeather{
+        final WeatherData data;
+        final long addedAt;
+
+        CachedWeather(WeatherData data, long addedAt){
+            this.data = data;
+            this.addedAt = addedAt;
+        }
+    }
+
+    private static final class CacheEntry{
+        final String location;
+        WeatherData data;
+        long addedAt;
+        long expiresAt;
+        TimingWheel.Timer<CacheEntry> timer;
+
+        CacheEntry(String location, WeatherData data, long addedAt, long expiresAt){
+            this.location = location;
+            this.data = data;
+            this.addedAt = addedAt;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.cache.WeatherDataCachingSystem;
+
+import java.io.Serializable;
+
+// WeatherData class implementing Serializable with transient fields
+class WeatherData implements Serializable{
+    private static final long serialVersionUID = 1L;
+
+    private String condition;
+    private double temperature;
+    private transient double humidity;  // Not saved during serialization
+
+    public WeatherData(String condition, double temperature, double humidity) {
+        this.condition = condition;
+        this.temperature = temperature;
+        this.humidity = humidity;
+    }
+
+    public String getCondition(){
+        return condition;
+    }
+
+    public double getTemperature(){
+        return temperature;
+    }
+
+    // 0 after deserialization
+    public double getHumidity(){
+        return humidity;
+    }
+
+    @Override
+    public String toString(){
+        return "Condition: " + condition + ", Temperature: " + temperature + "°C";
+    } 
+}
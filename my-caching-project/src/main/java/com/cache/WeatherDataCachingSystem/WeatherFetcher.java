@@ -0,0 +1,6 @@
+package com.cache.WeatherDataCachingSystem;
+
+// Source of fresh weather data (the remote API)
+interface WeatherFetcher{
+    WeatherData fetch(String location) throws Exception;
+}
@@ -0,0 +1,218 @@
+package com.cache.WeatherDataCachingSystem;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Recent readings per location, for trend queries, in fixed-size primitive ring buffers.
+ *
+ * A sample is 8 bytes: the timestamp as an int millisecond offset from a per-location base,
+ * and temperature and humidity as shorts in hundredths (so -327.68 to 327.67, plenty for
+ * degrees Celsius and percent). A list of WeatherData objects would cost an object header,
+ * a String reference and three boxed or padded fields per reading, and loses humidity on
+ * serialization. Once a location has its ring, record() allocates nothing; when the ring
+ * is full the oldest sample is overwritten.
+ *
+ * Samples must arrive in time order per location; an older sample than the newest one
+ * is dropped. Each ring is guarded by its own lock, so locations do not contend.
+ */
+class WeatherHistory {
+
+    private static final double SCALE = 100.0;
+
+    private final int samplesPerLocation;
+    private final ConcurrentHashMap<String, Ring> rings = new ConcurrentHashMap<>();
+    // Held in a field so computeIfAbsent does not allocate a lambda per call
+    private final Function<String, Ring> newRing;
+
+    WeatherHistory(int samplesPerLocation) {
+        if (samplesPerLocation <= 0) {
+            throw new IllegalArgumentException("samplesPerLocation must be positive: " + samplesPerLocation);
+        }
+        this.samplesPerLocation = samplesPerLocation;
+        this.newRing = location -> new Ring(this.samplesPerLocation);
+    }
+
+    // False if the sample is older than the newest one already recorded for location
+    boolean record(String location, long timestampMillis, double temperature, double humidity) {
+        Ring ring = rings.get(location);
+        if (ring == null) {
+            ring = rings.computeIfAbsent(location, newRing);
+        }
+        return ring.add(timestampMillis, temperature, humidity);
+    }
+
+    int size(String location) {
+        Ring ring = rings.get(location);
+        return ring == null ? 0 : ring.size();
+    }
+
+    /**
+     * Copies the samples with fromMillis <= timestamp < toMillis, oldest first, into the
+     * given arrays (stopping when they are full) and returns how many were copied.
+     */
+    int range(String location, long fromMillis, long toMillis, long[] timestamps, double[] temperatures,
+              double[] humidities) {
+        Ring ring = rings.get(location);
+        return ring == null ? 0 : ring.range(fromMillis, toMillis, timestamps, temperatures, humidities);
+    }
+
+    // Min/max/average over fromMillis <= timestamp < toMillis; count is 0 (and the rest NaN) if nothing matches
+    Summary summarize(String location, long fromMillis, long toMillis) {
+        Ring ring = rings.get(location);
+        return ring == null ? Summary.EMPTY : ring.summarize(fromMillis, toMillis);
+    }
+
+    void clear(String location) {
+        rings.remove(location);
+    }
+
+    static final class Summary {
+        static final Summary EMPTY = new Summary(0, Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN);
+
+        final int count;
+        final double minTemperature;
+        final double maxTemperature;
+        final double avgTemperature;
+        final double minHumidity;
+        final double maxHumidity;
+        final double avgHumidity;
+
+        Summary(int count, double minTemperature, double maxTemperature, double avgTemperature,
+                double minHumidity, double maxHumidity, double avgHumidity) {
+            this.count = count;
+            this.minTemperature = minTemperature;
+            this.maxTemperature = maxTemperature;
+            this.avgTemperature = avgTemperature;
+            this.minHumidity = minHumidity;
+            this.maxHumidity = maxHumidity;
+            this.avgHumidity = avgHumidity;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d samples, temperature %.2f/%.2f/%.2f, humidity %.2f/%.2f/%.2f (min/avg/max)",
+                count, minTemperature, avgTemperature, maxTemperature, minHumidity, avgHumidity, maxHumidity);
+        }
+    }
+
+    private static final class Ring {
+        private final int[] offsets;
+        private final short[] temperatures;
+        private final short[] humidities;
+        // Timestamps are baseMillis + offset
+        private long baseMillis;
+        private long newestMillis;
+        // Index of the oldest sample, and the number of samples
+        private int head;
+        private int size;
+
+        Ring(int capacity) {
+            offsets = new int[capacity];
+            temperatures = new short[capacity];
+            humidities = new short[capacity];
+        }
+
+        synchronized boolean add(long timestampMillis, double temperature, double humidity) {
+            if (size == 0) {
+                baseMillis = timestampMillis;
+            } else if (timestampMillis < newestMillis) {
+                return false;
+            } else if (timestampMillis - baseMillis > Integer.MAX_VALUE) {
+                rebase(timestampMillis);
+            }
+            int index;
+            if (size < offsets.length) {
+                index = (head + size) % offsets.length;
+                size++;
+            } else {
+                // Full: overwrite the oldest
+                index = head;
+                head = (head + 1) % offsets.length;
+            }
+            offsets[index] = (int) (timestampMillis - baseMillis);
+            temperatures[index] = quantize(temperature);
+            humidities[index] = quantize(humidity);
+            newestMillis = timestampMillis;
+            return true;
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        synchronized int range(long fromMillis, long toMillis, long[] timestamps, double[] temperatureOut,
+                               double[] humidityOut) {
+            int limit = Math.min(timestamps.length, Math.min(temperatureOut.length, humidityOut.length));
+            int copied = 0;
+            for (int i = 0; i < size && copied < limit; i++) {
+                int index = (head + i) % offsets.length;
+                long timestamp = baseMillis + offsets[index];
+                if (timestamp >= toMillis) {
+                    break;
+                }
+                if (timestamp >= fromMillis) {
+                    timestamps[copied] = timestamp;
+                    temperatureOut[copied] = temperatures[index] / SCALE;
+                    humidityOut[copied] = humidities[index] / SCALE;
+                    copied++;
+                }
+            }
+            return copied;
+        }
+
+        synchronized Summary summarize(long fromMillis, long toMillis) {
+            int count = 0;
+            int minTemperature = Integer.MAX_VALUE;
+            int maxTemperature = Integer.MIN_VALUE;
+            long sumTemperature = 0;
+            int minHumidity = Integer.MAX_VALUE;
+            int maxHumidity = Integer.MIN_VALUE;
+            long sumHumidity = 0;
+            for (int i = 0; i < size; i++) {
+                int index = (head + i) % offsets.length;
+                long timestamp = baseMillis + offsets[index];
+                if (timestamp >= toMillis) {
+                    break;
+                }
+                if (timestamp < fromMillis) {
+                    continue;
+                }
+                int temperature = temperatures[index];
+                int humidity = humidities[index];
+                minTemperature = Math.min(minTemperature, temperature);
+                maxTemperature = Math.max(maxTemperature, temperature);
+                sumTemperature += temperature;
+                minHumidity = Math.min(minHumidity, humidity);
+                maxHumidity = Math.max(maxHumidity, humidity);
+                sumHumidity += humidity;
+                count++;
+            }
+            if (count == 0) {
+                return Summary.EMPTY;
+            }
+            return new Summary(count, minTemperature / SCALE, maxTemperature / SCALE, sumTemperature / SCALE / count,
+                minHumidity / SCALE, maxHumidity / SCALE, sumHumidity / SCALE / count);
+        }
+
+        // The new sample is more than ~24 days past the base: move the base to it. Samples that
+        // would then be more than ~24 days old no longer fit an int offset and are dropped
+        private void rebase(long newBaseMillis) {
+            long shift = newBaseMillis - baseMillis;
+            while (size > 0 && offsets[head] - shift < Integer.MIN_VALUE) {
+                head = (head + 1) % offsets.length;
+                size--;
+            }
+            for (int i = 0; i < size; i++) {
+                int index = (head + i) % offsets.length;
+                offsets[index] = (int) (offsets[index] - shift);
+            }
+            baseMillis = newBaseMillis;
+        }
+
+        private static short quantize(double value) {
+            long scaled = Math.round(value * SCALE);
+            return (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, scaled));
+        }
+    }
+}
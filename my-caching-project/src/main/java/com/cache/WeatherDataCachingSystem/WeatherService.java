@@ -0,0 +1,365 @@
+package com.cache.WeatherDataCachingSystem;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+// WeatherService class simulating API fetch, caching, and handling multi-threaded requests.
+//
+// Refresh-ahead mode (stale-while-revalidate), for locations that are read all the time:
+// - younger than softTtl: served from the cache
+// - between softTtl and hardTtl: the cached value is returned right away and one
+//   background refresh is started; every caller in the meantime shares that refresh
+// - past hardTtl: callers wait for the refresh, but if it fails they get the stale value,
+//   for up to maxStale after the hard TTL (the cache keeps entries that long)
+// So a popular location never makes a caller wait for the API, as long as it is read
+// at least once between softTtl and hardTtl.
+//
+// Execution.VIRTUAL_THREADS answers cache hits on the caller's thread and runs each API
+// fetch on its own virtual thread, so thousands of slow fetches can be in flight at once
+// and none of them holds up a cache hit. FIXED_POOL is the original behaviour: every
+// lookup, hits included, goes through a pool of 3 threads.
+//
+// enableBatching combines misses that arrive close together into one multi-location
+// API request (see WeatherBatchLoader), for backends that charge per request.
+class WeatherService{
+    private static final int MAX_CACHE_SIZE = 5;
+
+    public enum Execution{
+        FIXED_POOL,
+        VIRTUAL_THREADS
+    }
+
+    private final WeatherCache cache;
+    private final Execution execution;
+    private final ExecutorService executor;
+    private final boolean virtualThreads;
+    private final WeatherFetcher fetcher;
+    private final LongSupplier clock;
+    private final boolean refreshAhead;
+    private final long softTtlMillis;
+    private final long hardTtlMillis;
+
+    // One fetch per location at a time, shared by every caller that needs it
+    private final ConcurrentHashMap<String, CompletableFuture<WeatherData>> fetches = new ConcurrentHashMap<>();
+    private final AtomicLong refreshes = new AtomicLong();
+    private final AtomicLong refreshFailures = new AtomicLong();
+    private final AtomicLong staleServed = new AtomicLong();
+    private final AtomicLong apiCalls = new AtomicLong();
+    // Set by enableBatching, null for one API call per location. Volatile so a service
+    // shared before enable* was called still sees a fully built loader
+    private volatile WeatherBatchLoader batchLoader;
+    // Set by enableHistory, null if readings are not kept
+    private volatile WeatherHistory history;
+
+    public WeatherService(){
+        this(Execution.FIXED_POOL);
+    }
+
+    public WeatherService(Execution execution){
+        this(execution, new WeatherCache(), false, 0, 0, null, System::currentTimeMillis);
+    }
+
+    /**
+     * Refresh-ahead mode.
+     *
+     * @param softTtlMillis  age after which a read triggers a background refresh
+     * @param hardTtlMillis  age after which reads wait for the refresh
+     * @param maxStaleMillis how long past the hard TTL a stale value may still be served if the refresh fails
+     */
+    public WeatherService(long softTtlMillis, long hardTtlMillis, long maxStaleMillis){
+        this(Execution.FIXED_POOL, softTtlMillis, hardTtlMillis, maxStaleMillis);
+    }
+
+    public WeatherService(Execution execution, long softTtlMillis, long hardTtlMillis, long maxStaleMillis){
+        this(execution, MAX_CACHE_SIZE, softTtlMillis, hardTtlMillis, maxStaleMillis, null, System::currentTimeMillis);
+    }
+
+    WeatherService(Execution execution, int maxCacheSize, long softTtlMillis, long hardTtlMillis, long maxStaleMillis,
+                   WeatherFetcher fetcher, LongSupplier clock){
+        this(execution, refreshAheadCache(maxCacheSize, softTtlMillis, hardTtlMillis, maxStaleMillis, clock),
+            true, softTtlMillis, hardTtlMillis, fetcher, clock);
+    }
+
+    WeatherService(Execution execution, WeatherCache cache, WeatherFetcher fetcher){
+        this(execution, cache, false, 0, 0, fetcher, System::currentTimeMillis);
+    }
+
+    private WeatherService(Execution execution, WeatherCache cache, boolean refreshAhead, long softTtlMillis,
+                           long hardTtlMillis, WeatherFetcher fetcher, LongSupplier clock){
+        this.cache = cache;
+        this.execution = execution;
+        if(execution == Execution.VIRTUAL_THREADS){
+            ExecutorService virtual = newVirtualThreadPerTaskExecutor();
+            this.virtualThreads = virtual != null;
+            this.executor = virtual != null ? virtual : newThreadPerFetchExecutor();
+        }else{
+            this.virtualThreads = false;
+            this.executor = Executors.newFixedThreadPool(3);
+        }
+        this.fetcher = fetcher != null ? fetcher : this::fetchWeatherFromAPI;
+        this.clock = clock;
+        this.refreshAhead = refreshAhead;
+        this.softTtlMillis = softTtlMillis;
+        this.hardTtlMillis = hardTtlMillis;
+    }
+
+    private static WeatherCache refreshAheadCache(int maxCacheSize, long softTtlMillis, long hardTtlMillis,
+                                                  long maxStaleMillis, LongSupplier clock){
+        if(softTtlMillis <= 0 || hardTtlMillis < softTtlMillis || maxStaleMillis < 0){
+            throw new IllegalArgumentException("Need 0 < softTtlMillis <= hardTtlMillis and maxStaleMillis >= 0");
+        }
+        return new WeatherCache(maxCacheSize, hardTtlMillis + maxStaleMillis, clock);
+    }
+
+     // Method to retrieve weather data, either from cache or simulated API
+     public Future<WeatherData> getWeather(final String location){
+        if(refreshAhead){
+            return getWeatherRefreshAhead(location);
+        }
+        if(execution == Execution.VIRTUAL_THREADS || batchLoader != null){
+            WeatherData cached = cache.getWeatherData(location);
+            return cached != null ? CompletableFuture.completedFuture(cached) : fetch(location);
+        }
+        return executor.submit(() -> {
+            // A single lookup: checking isCached first could see an entry that expires before the get
+            WeatherData cached = cache.getWeatherData(location);
+            if(cached != null){
+                System.out.println("Fetching from cache for location: " + location);
+                return cached;
+            }else{
+                System.out.println("Fetching from API for location: " + location);
+                apiCalls.incrementAndGet();
+                WeatherData data = fetcher.fetch(location);
+                    store(location, data);
+                    return data;
+                }   
+        });
+     }
+
+    /**
+     * Weather for several locations at once. Every location is looked up concurrently and
+     * the call returns when all of them are done, in the order given; if any fetch fails,
+     * that failure is thrown once the others have finished, so no lookup outlives the call.
+     * Fetches are shared with other callers, so a failure does not cancel the rest.
+     */
+    public Map<String, WeatherData> getWeather(Collection<String> locations)
+            throws InterruptedException, ExecutionException{
+        Map<String, Future<WeatherData>> lookups = new LinkedHashMap<>();
+        for(String location : locations){
+            lookups.put(location, getWeather(location));
+        }
+        Map<String, WeatherData> results = new LinkedHashMap<>();
+        ExecutionException failure = null;
+        for(Map.Entry<String, Future<WeatherData>> lookup : lookups.entrySet()){
+            try{
+                results.put(lookup.getKey(), lookup.getValue().get());
+            }catch(ExecutionException e){
+                if(failure == null){
+                    failure = e;
+                }
+            }
+        }
+        if(failure != null){
+            throw failure;
+        }
+        return results;
+    }
+
+    // True if fetches run on virtual threads, false on platform threads (FIXED_POOL, or a JVM older than 21)
+    public boolean usesVirtualThreads(){
+        return virtualThreads;
+    }
+
+    /**
+     * Fetch misses in batches: misses arriving within windowMillis of each other, up to
+     * maxBatchSize locations, become one fetchWeatherBatch call. Cache hits are answered on the
+     * caller's thread from then on, as with VIRTUAL_THREADS. Call before the service is shared.
+     */
+    public WeatherService enableBatching(long windowMillis, int maxBatchSize){
+        return enableBatching(windowMillis, maxBatchSize, this::fetchWeatherBatch);
+    }
+
+    WeatherService enableBatching(long windowMillis, int maxBatchSize, WeatherBatchLoader.BatchFetcher batchFetcher){
+        this.batchLoader = new WeatherBatchLoader(locations -> {
+            apiCalls.incrementAndGet();
+            return batchFetcher.fetchBatch(locations);
+        }, executor, windowMillis, maxBatchSize);
+        return this;
+    }
+
+    /**
+     * Keep the last samplesPerLocation readings fetched for each location (temperature and
+     * humidity, see WeatherHistory), for summarizeHistory. Call before the service is shared.
+     */
+    public WeatherService enableHistory(int samplesPerLocation){
+        this.history = new WeatherHistory(samplesPerLocation);
+        return this;
+    }
+
+    // Min/max/average of the readings fetched for location in the last windowMillis, or null without enableHistory
+    public WeatherHistory.Summary summarizeHistory(String location, long windowMillis){
+        WeatherHistory history = this.history;
+        if(history == null){
+            return null;
+        }
+        long now = clock.getAsLong();
+        return history.summarize(location, now - windowMillis, now + 1);
+    }
+
+    // Requests sent to the weather API; with batching one request covers many locations
+    public long getApiCalls(){
+        return apiCalls.get();
+    }
+
+    public long getRefreshes(){
+        return refreshes.get();
+    }
+
+    public long getRefreshFailures(){
+        return refreshFailures.get();
+    }
+
+    // Reads past the hard TTL answered with the old value because the refresh failed
+    public long getStaleServed(){
+        return staleServed.get();
+    }
+
+    // Fresh and soft-stale hits complete on the caller's thread, without a hand-off to the executor
+    private CompletableFuture<WeatherData> getWeatherRefreshAhead(String location){
+        WeatherCache.CachedWeather cached = cache.getCachedWeather(location);
+        if(cached == null){
+            return fetch(location);
+        }
+        long age = clock.getAsLong() - cached.addedAt;
+        if(age < softTtlMillis){
+            return CompletableFuture.completedFuture(cached.data);
+        }
+        if(age < hardTtlMillis){
+            fetch(location);
+            return CompletableFuture.completedFuture(cached.data);
+        }
+        return fetch(location).handle((data, failure) -> {
+            if(failure == null){
+                return data;
+            }
+            staleServed.incrementAndGet();
+            return cached.data;
+        });
+    }
+
+    // Starts a fetch of location unless one is already running, and returns the running one
+    private CompletableFuture<WeatherData> fetch(String location){
+        CompletableFuture<WeatherData> inFlight = fetches.get(location);
+        if(inFlight != null){
+            return inFlight;
+        }
+        CompletableFuture<WeatherData> fetch = new CompletableFuture<>();
+        inFlight = fetches.putIfAbsent(location, fetch);
+        if(inFlight != null){
+            return inFlight;
+        }
+        refreshes.incrementAndGet();
+        WeatherBatchLoader batchLoader = this.batchLoader;
+        if(batchLoader != null){
+            batchLoader.load(location).whenComplete((data, failure) -> {
+                if(failure == null){
+                    store(location, data);
+                }
+                completeFetch(location, fetch, data, failure);
+            });
+            return fetch;
+        }
+        executor.execute(() -> {
+            WeatherData data = null;
+            Throwable failure = null;
+            try{
+                apiCalls.incrementAndGet();
+                data = fetcher.fetch(location);
+                store(location, data);
+            }catch(Exception e){
+                failure = e;
+            }
+            completeFetch(location, fetch, data, failure);
+        });
+        return fetch;
+    }
+
+    private void store(String location, WeatherData data){
+        cache.addWeatherData(location, data);
+        WeatherHistory history = this.history;
+        if(history != null){
+            history.record(location, clock.getAsLong(), data.getTemperature(), data.getHumidity());
+        }
+    }
+
+    private void completeFetch(String location, CompletableFuture<WeatherData> fetch, WeatherData data, Throwable failure){
+        // Unregister before completing, so whoever sees the result can also start the next fetch.
+        // On success the cache already has the new data, so callers in between will not start another one
+        fetches.remove(location, fetch);
+        if(failure == null){
+            fetch.complete(data);
+        }else{
+            refreshFailures.incrementAndGet();
+            fetch.completeExceptionally(failure);
+        }
+    }
+
+    // Executors.newVirtualThreadPerTaskExecutor() on Java 21+, null before that.
+    // Looked up reflectively so the project still builds and runs on older JDKs
+    private static ExecutorService newVirtualThreadPerTaskExecutor(){
+        try{
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        }catch(ReflectiveOperationException e){
+            return null;
+        }
+    }
+
+    // Fallback without virtual threads: a daemon platform thread per concurrent fetch, reused
+    // when idle. Still no pool size to tune, but each waiting fetch costs a full thread stack
+    private static ExecutorService newThreadPerFetchExecutor(){
+        AtomicLong threads = new AtomicLong();
+        return Executors.newCachedThreadPool(task -> {
+            Thread thread = new Thread(task, "weather-fetch-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Simulated API call to fetch weather data
+    private WeatherData fetchWeatherFromAPI(String location) throws InterruptedException{
+        Thread.sleep(1000);
+        return new WeatherData("Sunny", Math.random() * 35, Math.random() * 100); // Random weather data
+
+    }
+
+    // Simulated multi-location API call: one round trip, however many locations are asked for
+    private Map<String, WeatherData> fetchWeatherBatch(Collection<String> locations) throws InterruptedException{
+        Thread.sleep(1000);
+        Map<String, WeatherData> results = new HashMap<>();
+        for(String location : locations){
+            results.put(location, new WeatherData("Sunny", Math.random() * 35, Math.random() * 100));
+        }
+        return results;
+    }
+
+    public void shutdownService(){
+        WeatherBatchLoader batchLoader = this.batchLoader;
+        if(batchLoader != null){
+            batchLoader.shutdown();
+        }
+        executor.shutdown();
+    }
+
+}
@@ -0,0 +1,40 @@
+package com.cache.codec;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Read side of BinaryWriter's layout. Works on heap buffers and on read-only mapped
+ * slices; the latter are copied through a per-thread scratch array instead of a new
+ * byte[] per string.
+ */
+public final class BinaryReader {
+
+    private static final int MAX_RETAINED_SCRATCH = 64 * 1024;
+
+    private static final ThreadLocal<byte[]> SCRATCH = ThreadLocal.withInitial(() -> new byte[256]);
+
+    private BinaryReader() {
+    }
+
+    public static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IllegalArgumentException("Corrupt string length: " + length);
+        }
+        if (buffer.hasArray()) {
+            int offset = buffer.arrayOffset() + buffer.position();
+            buffer.position(buffer.position() + length);
+            return new String(buffer.array(), offset, length, StandardCharsets.UTF_8);
+        }
+        byte[] scratch = SCRATCH.get();
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, 2 * scratch.length)];
+            if (scratch.length <= MAX_RETAINED_SCRATCH) {
+                SCRATCH.set(scratch);
+            }
+        }
+        buffer.get(scratch, 0, length);
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+}
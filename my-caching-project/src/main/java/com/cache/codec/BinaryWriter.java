@@ -0,0 +1,118 @@
+package com.cache.codec;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Scratch buffer for hand-rolled binary codecs, reused per thread so encoding a value
+ * allocates nothing but the exact-size result array.
+ *
+ * Layout helpers: strings are an int byte length followed by UTF-8, numbers are
+ * big-endian primitives.
+ *
+ * Usage:
+ *   BinaryWriter writer = BinaryWriter.get();
+ *   writer.putString(id).putDouble(price);
+ *   return writer.toByteArray();
+ */
+public final class BinaryWriter {
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    // Buffers that grew past this are not kept, so one huge value doesn't pin memory per thread
+    private static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+
+    private static final ThreadLocal<BinaryWriter> WRITERS = ThreadLocal.withInitial(BinaryWriter::new);
+
+    private ByteBuffer buffer = ByteBuffer.allocate(INITIAL_CAPACITY);
+
+    private BinaryWriter() {
+    }
+
+    // This thread's writer, emptied
+    public static BinaryWriter get() {
+        BinaryWriter writer = WRITERS.get();
+        if (writer.buffer.capacity() > MAX_RETAINED_CAPACITY) {
+            writer.buffer = ByteBuffer.allocate(INITIAL_CAPACITY);
+        }
+        writer.buffer.clear();
+        return writer;
+    }
+
+    public BinaryWriter putInt(int value) {
+        ensureRemaining(4).putInt(value);
+        return this;
+    }
+
+    public BinaryWriter putLong(long value) {
+        ensureRemaining(8).putLong(value);
+        return this;
+    }
+
+    public BinaryWriter putDouble(double value) {
+        ensureRemaining(8).putDouble(value);
+        return this;
+    }
+
+    // Encodes UTF-8 straight into the buffer instead of going through String.getBytes
+    public BinaryWriter putString(String value) {
+        int length = value.length();
+        // Worst case is 3 bytes per char (a surrogate pair is 4 bytes for 2 chars)
+        ensureRemaining(4 + 3 * length);
+        int lengthPosition = buffer.position();
+        buffer.position(lengthPosition + 4);
+        byte[] array = buffer.array();
+        int position = buffer.position();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                array[position++] = (byte) c;
+            } else if (c < 0x800) {
+                array[position++] = (byte) (0xC0 | (c >> 6));
+                array[position++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                // Rare; let the JDK handle pairing and replacement of lone surrogates
+                buffer.position(lengthPosition);
+                return putStringSlow(value);
+            } else {
+                array[position++] = (byte) (0xE0 | (c >> 12));
+                array[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                array[position++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        buffer.putInt(lengthPosition, position - lengthPosition - 4);
+        buffer.position(position);
+        return this;
+    }
+
+    private BinaryWriter putStringSlow(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        ensureRemaining(4 + bytes.length).putInt(bytes.length).put(bytes);
+        return this;
+    }
+
+    public int size() {
+        return buffer.position();
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    private ByteBuffer ensureRemaining(int bytes) {
+        if (buffer.remaining() < bytes) {
+            long needed = (long) buffer.position() + bytes;
+            if (needed > Integer.MAX_VALUE - 8) {
+                throw new BufferOverflowException();
+            }
+            int capacity = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(needed, 2L * buffer.capacity()));
+            ByteBuffer grown = ByteBuffer.allocate(capacity);
+            buffer.flip();
+            grown.put(buffer);
+            buffer = grown;
+        }
+        return buffer;
+    }
+}
@@ -0,0 +1,23 @@
+package com.cache.codec;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Turns cached values into bytes for a disk tier and back.
+ *
+ * Implementations must be thread-safe; the disk tiers share one codec instance
+ * between all reader and writer threads.
+ */
+public interface Codec<T> {
+
+    // Encoded form of value; the array is owned by the caller
+    byte[] encode(T value) throws IOException;
+
+    // Decode one value from the buffer's remaining bytes (the buffer may be a mapped slice)
+    T decode(ByteBuffer buffer) throws IOException;
+
+    default T decode(byte[] bytes) throws IOException {
+        return decode(ByteBuffer.wrap(bytes));
+    }
+}
@@ -0,0 +1,42 @@
+package com.cache.codec;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+
+/**
+ * The old on-disk format: a full ObjectOutputStream stream per value, class descriptor included.
+ * Slow and large, but it reads files written before the binary codecs existed.
+ */
+public class JavaSerializationCodec<T extends Serializable> implements Codec<T> {
+
+    private final Class<T> type;
+
+    public JavaSerializationCodec(Class<T> type) {
+        this.type = type;
+    }
+
+    @Override
+    public byte[] encode(T value) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(value);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Override
+    public T decode(ByteBuffer buffer) throws IOException {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return type.cast(in.readObject());
+        } catch (ClassNotFoundException e) {
+            throw new IOException("Unknown class in serialized " + type.getSimpleName(), e);
+        }
+    }
+}
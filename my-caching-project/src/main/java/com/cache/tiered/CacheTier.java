@@ -0,0 +1,31 @@
+package com.cache.tiered;
+
+import java.io.Closeable;
+import java.util.function.BiConsumer;
+
+/**
+ * One level of a TieredCache. Implementations bound their own size, must be thread-safe,
+ * and report every entry they drop to make room so TieredCache can demote it.
+ *
+ * I/O failures in disk-backed tiers surface as UncheckedIOException.
+ */
+public interface CacheTier<K, V> extends Closeable {
+
+    // Short label used in stats output, e.g. "heap" or "disk"
+    String name();
+
+    // The value, or null if this tier does not hold the key
+    V get(K key);
+
+    // Store the entry; entries evicted to make room are passed to evicted
+    void put(K key, V value, BiConsumer<? super K, ? super V> evicted);
+
+    // True if this tier held the key
+    boolean remove(K key);
+
+    long size();
+
+    @Override
+    default void close() {
+    }
+}
@@ -0,0 +1,85 @@
+package com.cache.tiered;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import com.cache.LogStore.BoundedLogStore;
+import com.cache.codec.Codec;
+
+/**
+ * Disk tier on a BoundedLogStore: an in-memory key index, LRU byte budget and optional
+ * max age. Keys are stored by their toString() and turned back into keys by keyParser
+ * (e.g. Function.identity() for String keys, Long::valueOf for Long keys), so entries the
+ * byte budget pushes out can be reported like any other tier's evictions. Entries that
+ * expire are not reported; they are treated as absent when read.
+ */
+public class DiskTier<K, V> implements CacheTier<K, V> {
+
+    private final String name;
+    private final BoundedLogStore store;
+    private final Codec<V> codec;
+    private final Function<String, K> keyParser;
+
+    public DiskTier(String name, BoundedLogStore store, Codec<V> codec, Function<String, K> keyParser) {
+        this.name = name;
+        this.store = store;
+        this.codec = codec;
+        this.keyParser = keyParser;
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public V get(K key) {
+        try {
+            ByteBuffer record = store.get(key.toString());
+            return record == null ? null : codec.decode(record);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read " + key + " from tier " + name, e);
+        }
+    }
+
+    @Override
+    public void put(K key, V value, BiConsumer<? super K, ? super V> evicted) {
+        try {
+            store.put(key.toString(), codec.encode(value), (evictedKey, record) -> {
+                try {
+                    evicted.accept(keyParser.apply(evictedKey), codec.decode(record));
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Failed to read evicted " + evictedKey + " from tier " + name, e);
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write " + key + " to tier " + name, e);
+        }
+    }
+
+    @Override
+    public boolean remove(K key) {
+        try {
+            return store.remove(key.toString());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to remove " + key + " from tier " + name, e);
+        }
+    }
+
+    @Override
+    public long size() {
+        return store.size();
+    }
+
+    @Override
+    public void close() {
+        try {
+            store.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to close tier " + name, e);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.cache.tiered;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * On-heap LRU tier bounded by entry count.
+ */
+public class HeapTier<K, V> implements CacheTier<K, V> {
+
+    private final String name;
+    private final int capacity;
+    // Access order: eldest = least recently used. Guarded by this
+    private final LinkedHashMap<K, V> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    public HeapTier(String name, int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.name = name;
+        this.capacity = capacity;
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public synchronized V get(K key) {
+        return entries.get(key);
+    }
+
+    @Override
+    public void put(K key, V value, BiConsumer<? super K, ? super V> evicted) {
+        Map.Entry<K, V> victim = null;
+        synchronized (this) {
+            entries.put(key, value);
+            if (entries.size() > capacity) {
+                Iterator<Map.Entry<K, V>> eldest = entries.entrySet().iterator();
+                victim = eldest.next();
+                eldest.remove();
+            }
+        }
+        // Outside the lock: demoting into the next tier can take its own locks or do I/O
+        if (victim != null) {
+            evicted.accept(victim.getKey(), victim.getValue());
+        }
+    }
+
+    @Override
+    public synchronized boolean remove(K key) {
+        return entries.remove(key) != null;
+    }
+
+    @Override
+    public synchronized long size() {
+        return entries.size();
+    }
+}
@@ -0,0 +1,116 @@
+package com.cache.tiered;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+import com.cache.codec.Codec;
+
+/**
+ * LRU tier that keeps encoded values in direct (off-heap) buffers, bounded by bytes.
+ * Values don't count towards the Java heap or GC marking work; keys and the index stay
+ * on heap. Each value has its own direct buffer, whose native memory is released when
+ * the buffer object is collected.
+ */
+public class OffHeapTier<K, V> implements CacheTier<K, V> {
+
+    private final String name;
+    private final long maxBytes;
+    private final Codec<V> codec;
+    // Access order: eldest = least recently used. Guarded by this
+    private final LinkedHashMap<K, ByteBuffer> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long usedBytes;
+
+    public OffHeapTier(String name, long maxBytes, Codec<V> codec) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("maxBytes must be positive: " + maxBytes);
+        }
+        this.name = name;
+        this.maxBytes = maxBytes;
+        this.codec = codec;
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public V get(K key) {
+        ByteBuffer stored;
+        synchronized (this) {
+            stored = entries.get(key);
+        }
+        if (stored == null) {
+            return null;
+        }
+        try {
+            return codec.decode(stored.duplicate());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Corrupt off-heap entry in tier " + name, e);
+        }
+    }
+
+    @Override
+    public void put(K key, V value, BiConsumer<? super K, ? super V> evicted) {
+        byte[] bytes;
+        try {
+            bytes = codec.encode(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to encode value for tier " + name, e);
+        }
+        if (bytes.length > maxBytes) {
+            // Would flush the whole tier; pass it straight on
+            remove(key);
+            evicted.accept(key, value);
+            return;
+        }
+        ByteBuffer stored = ByteBuffer.allocateDirect(bytes.length);
+        stored.put(bytes).flip();
+
+        List<Map.Entry<K, ByteBuffer>> victims = new ArrayList<>();
+        synchronized (this) {
+            ByteBuffer previous = entries.put(key, stored);
+            usedBytes += bytes.length - (previous == null ? 0 : previous.capacity());
+            Iterator<Map.Entry<K, ByteBuffer>> eldest = entries.entrySet().iterator();
+            while (usedBytes > maxBytes && eldest.hasNext()) {
+                Map.Entry<K, ByteBuffer> victim = eldest.next();
+                eldest.remove();
+                usedBytes -= victim.getValue().capacity();
+                victims.add(victim);
+            }
+        }
+        for (Map.Entry<K, ByteBuffer> victim : victims) {
+            try {
+                evicted.accept(victim.getKey(), codec.decode(victim.getValue().duplicate()));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Corrupt off-heap entry in tier " + name, e);
+            }
+        }
+    }
+
+    @Override
+    public synchronized boolean remove(K key) {
+        ByteBuffer removed = entries.remove(key);
+        if (removed == null) {
+            return false;
+        }
+        usedBytes -= removed.capacity();
+        return true;
+    }
+
+    @Override
+    public synchronized long size() {
+        return entries.size();
+    }
+
+    public synchronized long usedBytes() {
+        return usedBytes;
+    }
+}
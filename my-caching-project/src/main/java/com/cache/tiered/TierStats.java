@@ -0,0 +1,95 @@
+package com.cache.tiered;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-tier counters. LongAdder instead of AtomicLong/int: every lookup touches these, and
+ * under many threads a single contended counter would cost more than the lookup itself.
+ */
+public class TierStats {
+
+    private final String tierName;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder lookupNanos = new LongAdder();
+    private final LongAdder puts = new LongAdder();
+    private final LongAdder promotions = new LongAdder();
+    private final LongAdder demotions = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    TierStats(String tierName) {
+        this.tierName = tierName;
+    }
+
+    void recordLookup(boolean hit, long nanos) {
+        (hit ? hits : misses).increment();
+        lookupNanos.add(nanos);
+    }
+
+    void recordPut() {
+        puts.increment();
+    }
+
+    // An entry moved up into this tier
+    void recordPromotion() {
+        promotions.increment();
+    }
+
+    // An entry this tier evicted was moved down to the next one
+    void recordDemotion() {
+        demotions.increment();
+    }
+
+    // An entry this tier evicted left the cache
+    void recordEviction() {
+        evictions.increment();
+    }
+
+    public String tierName() {
+        return tierName;
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    public double hitRate() {
+        long hits = hits();
+        long lookups = hits + misses();
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    // Mean time of a lookup in this tier, hit or miss
+    public double averageLookupNanos() {
+        long lookups = hits() + misses();
+        return lookups == 0 ? 0 : (double) lookupNanos.sum() / lookups;
+    }
+
+    public long puts() {
+        return puts.sum();
+    }
+
+    public long promotions() {
+        return promotions.sum();
+    }
+
+    public long demotions() {
+        return demotions.sum();
+    }
+
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: hits=%d, misses=%d, hitRate=%.2f%%, avgLookup=%.0fns, puts=%d, "
+                + "promotions=%d, demotions=%d, evictions=%d",
+            tierName, hits(), misses(), 100 * hitRate(), averageLookupNanos(), puts(),
+            promotions(), demotions(), evictions());
+    }
+}
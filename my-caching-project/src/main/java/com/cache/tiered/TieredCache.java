@@ -0,0 +1,198 @@
+package com.cache.tiered;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A stack of CacheTiers (fastest first) behind one get/put API, so services can compose
+ * e.g. heap -> off-heap -> disk without re-writing the lookup path.
+ *
+ * Policies:
+ * - Inclusion.INCLUSIVE: put writes every tier, lower tiers keep copies of upper ones.
+ *   Evictions just drop the entry (a lower tier still has it).
+ * - Inclusion.EXCLUSIVE: an entry lives in one tier. put goes to the top tier and an
+ *   eviction is demoted into the next tier (Demotion.NEXT_TIER) or dropped (DROP).
+ * - Promotion: where a hit in a lower tier is copied (inclusive) or moved (exclusive) to:
+ *   TO_TOP, ONE_LEVEL up, or NONE.
+ *
+ * Thread-safe as long as the tiers are. Moves between tiers are not atomic, so during a
+ * promotion a concurrent reader may find the entry in both tiers or miss it in one.
+ *
+ * Usage:
+ *   TieredCache<String, Product> cache = TieredCache.<String, Product>builder()
+ *       .tier(new HeapTier<>("heap", 1000))
+ *       .tier(new DiskTier<>("disk", store, new ProductCodec(), Function.identity()))
+ *       .inclusion(TieredCache.Inclusion.EXCLUSIVE)
+ *       .build();
+ */
+public class TieredCache<K, V> implements Closeable {
+
+    public enum Inclusion {
+        INCLUSIVE,
+        EXCLUSIVE
+    }
+
+    public enum Promotion {
+        TO_TOP,
+        ONE_LEVEL,
+        NONE
+    }
+
+    public enum Demotion {
+        NEXT_TIER,
+        DROP
+    }
+
+    private final List<CacheTier<K, V>> tiers;
+    private final List<TierStats> stats;
+    private final Inclusion inclusion;
+    private final Promotion promotion;
+    private final Demotion demotion;
+
+    private TieredCache(Builder<K, V> builder) {
+        this.tiers = new ArrayList<>(builder.tiers);
+        this.inclusion = builder.inclusion;
+        this.promotion = builder.promotion;
+        this.demotion = builder.demotion;
+        List<TierStats> stats = new ArrayList<>(tiers.size());
+        for (CacheTier<K, V> tier : tiers) {
+            stats.add(new TierStats(tier.name()));
+        }
+        this.stats = Collections.unmodifiableList(stats);
+    }
+
+    public static <K, V> Builder<K, V> builder() {
+        return new Builder<>();
+    }
+
+    public V get(K key) {
+        for (int level = 0; level < tiers.size(); level++) {
+            long start = System.nanoTime();
+            V value = tiers.get(level).get(key);
+            stats.get(level).recordLookup(value != null, System.nanoTime() - start);
+            if (value != null) {
+                if (level > 0) {
+                    promote(key, value, level);
+                }
+                return value;
+            }
+        }
+        return null;
+    }
+
+    public void put(K key, V value) {
+        if (inclusion == Inclusion.INCLUSIVE) {
+            for (int level = 0; level < tiers.size(); level++) {
+                putInTier(level, key, value);
+            }
+            return;
+        }
+        // Exclusive: drop stale copies below, then insert at the top
+        for (int level = 1; level < tiers.size(); level++) {
+            tiers.get(level).remove(key);
+        }
+        putInTier(0, key, value);
+    }
+
+    public void remove(K key) {
+        for (CacheTier<K, V> tier : tiers) {
+            tier.remove(key);
+        }
+    }
+
+    // One TierStats per tier, in tier order
+    public List<TierStats> stats() {
+        return stats;
+    }
+
+    public List<CacheTier<K, V>> tiers() {
+        return Collections.unmodifiableList(tiers);
+    }
+
+    public void printStats() {
+        for (int level = 0; level < tiers.size(); level++) {
+            System.out.println("Tier " + level + " " + stats.get(level) + ", size=" + tiers.get(level).size());
+        }
+    }
+
+    @Override
+    public void close() {
+        for (CacheTier<K, V> tier : tiers) {
+            tier.close();
+        }
+    }
+
+    private void promote(K key, V value, int level) {
+        int target;
+        switch (promotion) {
+            case TO_TOP:
+                target = 0;
+                break;
+            case ONE_LEVEL:
+                target = level - 1;
+                break;
+            default:
+                return;
+        }
+        if (inclusion == Inclusion.EXCLUSIVE) {
+            tiers.get(level).remove(key);
+        }
+        stats.get(target).recordPromotion();
+        putInTier(target, key, value);
+    }
+
+    private void putInTier(int level, K key, V value) {
+        stats.get(level).recordPut();
+        tiers.get(level).put(key, value, (evictedKey, evictedValue) -> onEvicted(level, evictedKey, evictedValue));
+    }
+
+    private void onEvicted(int level, K key, V value) {
+        int next = level + 1;
+        if (inclusion == Inclusion.EXCLUSIVE && demotion == Demotion.NEXT_TIER && next < tiers.size()) {
+            stats.get(level).recordDemotion();
+            putInTier(next, key, value);
+        } else {
+            stats.get(level).recordEviction();
+        }
+    }
+
+    public static final class Builder<K, V> {
+        private final List<CacheTier<K, V>> tiers = new ArrayList<>();
+        private Inclusion inclusion = Inclusion.INCLUSIVE;
+        private Promotion promotion = Promotion.TO_TOP;
+        private Demotion demotion = Demotion.NEXT_TIER;
+
+        private Builder() {
+        }
+
+        // Tiers are searched in the order they are added: fastest first
+        public Builder<K, V> tier(CacheTier<K, V> tier) {
+            tiers.add(tier);
+            return this;
+        }
+
+        public Builder<K, V> inclusion(Inclusion inclusion) {
+            this.inclusion = inclusion;
+            return this;
+        }
+
+        public Builder<K, V> promotion(Promotion promotion) {
+            this.promotion = promotion;
+            return this;
+        }
+
+        public Builder<K, V> demotion(Demotion demotion) {
+            this.demotion = demotion;
+            return this;
+        }
+
+        public TieredCache<K, V> build() {
+            if (tiers.isEmpty()) {
+                throw new IllegalStateException("A TieredCache needs at least one tier");
+            }
+            return new TieredCache<>(this);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.cache.BookLibraryCache;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.cache.BookLibraryCache.BookLibrarySystem.BookLibrary;
+import com.cache.BookLibraryCache.BookLibrarySystem.BookLibrary.Book;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test for BookLibrary snapshots and concurrent writes.
+ */
+public class BookLibraryTest extends TestCase
+{
+    public void testSnapshotsAreUnaffectedByLaterWrites()
+    {
+        BookLibrary library = new BookLibrary();
+        library.addBook( new Book( "1", "Hamlet", "William Shakespeare" ) );
+        library.addBook( new Book( "2", "Macbeth", "William Shakespeare" ) );
+        BookLibrary.Snapshot first = library.snapshot();
+
+        // Enough adds to grow the shared array
+        for ( int i = 3; i < 40; i++ )
+        {
+            library.addBook( new Book( String.valueOf( i ), "Book" + i, "Author" + ( i % 3 ) ) );
+        }
+        assertTrue( library.removeBook( "1" ) );
+        assertFalse( library.removeBook( "1" ) );
+
+        assertEquals( 2, first.getBooks().size() );
+        assertEquals( "1", first.getBooks().get( 0 ).getIsbn() );
+        assertEquals( Integer.valueOf( 2 ), first.getBookCountByAuthor().get( "William Shakespeare" ) );
+        assertEquals( 1, first.getAuthors().size() );
+
+        List<Book> books = library.getAllBooks();
+        assertEquals( 38, books.size() );
+        assertEquals( Integer.valueOf( 1 ), library.getBookCountByAuthor().get( "William Shakespeare" ) );
+        assertEquals( 4, library.getAuthors().size() );
+        assertEquals( first.getVersion() + 38, library.snapshot().getVersion() );
+    }
+
+    public void testAuthorDisappearsWithItsLastBook()
+    {
+        BookLibrary library = new BookLibrary();
+        library.addBook( new Book( "1", "1984", "George Orwell" ) );
+        library.removeBook( "1" );
+        assertTrue( library.getAuthors().isEmpty() );
+        assertTrue( library.getAllBooks().isEmpty() );
+    }
+
+    public void testDuplicateIsbnsAreRemovedNewestFirst()
+    {
+        BookLibrary library = new BookLibrary();
+        Book first = new Book( "1", "Hamlet", "William Shakespeare" );
+        Book second = new Book( "1", "Hamlet (2nd ed.)", "William Shakespeare" );
+        library.addBooks( Arrays.asList( first, second ) );
+        assertSame( second, library.getBook( "1" ) );
+        assertTrue( library.removeBook( "1" ) );
+        assertSame( first, library.getBook( "1" ) );
+        assertTrue( library.removeBook( "1" ) );
+        assertNull( library.getBook( "1" ) );
+        assertFalse( library.removeBook( "1" ) );
+    }
+
+    public void testRejectedBatchLeavesLibraryUnchanged()
+    {
+        BookLibrary library = new BookLibrary();
+        Book hamlet = new Book( "1", "Hamlet", "William Shakespeare" );
+        library.addBook( hamlet );
+        BookLibrary.Snapshot before = library.snapshot();
+        try
+        {
+            library.addBooks( Arrays.asList( new Book( "1", "Hamlet (2nd ed.)", "William Shakespeare" ),
+                new Book( null, "Untitled", "Anonymous" ) ) );
+            fail( "batch with a book without an isbn" );
+        }
+        catch ( IllegalArgumentException expected )
+        {
+        }
+
+        assertSame( before, library.snapshot() );
+        assertSame( hamlet, library.getBook( "1" ) );
+        assertTrue( library.removeBook( "1" ) );
+        assertNull( library.getBook( "1" ) );
+    }
+
+    public void testConcurrentReadersSeeConsistentSnapshots() throws Exception
+    {
+        final BookLibrary library = new BookLibrary();
+        final AtomicBoolean done = new AtomicBoolean();
+        final AtomicReference<String> failure = new AtomicReference<String>();
+        Thread[] readers = new Thread[3];
+        for ( int r = 0; r < readers.length; r++ )
+        {
+            readers[r] = new Thread( () -> {
+                while ( !done.get() )
+                {
+                    BookLibrary.Snapshot snapshot = library.snapshot();
+                    int counted = 0;
+                    for ( int count : snapshot.getBookCountByAuthor().values() )
+                    {
+                        counted += count;
+                    }
+                    // Batches of 10 are published whole
+                    if ( counted != snapshot.getBooks().size() || counted % 10 != 0 )
+                    {
+                        failure.set( counted + " counted, " + snapshot.getBooks().size() + " books" );
+                    }
+                }
+            } );
+            readers[r].start();
+        }
+        for ( int batch = 0; batch < 500; batch++ )
+        {
+            List<Book> books = new ArrayList<Book>();
+            for ( int i = 0; i < 10; i++ )
+            {
+                int id = batch * 10 + i;
+                books.add( new Book( String.valueOf( id ), "Book" + id, "Author" + ( id % 7 ) ) );
+            }
+            library.addBooks( books );
+        }
+        done.set( true );
+        for ( Thread reader : readers )
+        {
+            reader.join();
+        }
+        assertNull( failure.get() );
+        assertEquals( 5000, library.getAllBooks().size() );
+    }
+
+    public void testViewsAreReadOnly()
+    {
+        BookLibrary library = new BookLibrary();
+        library.addBook( new Book( "1", "1984", "George Orwell" ) );
+        try
+        {
+            library.getAllBooks().add( new Book( "2", "Animal Farm", "George Orwell" ) );
+            fail( "expected a read-only view" );
+        }
+        catch ( UnsupportedOperationException expected )
+        {
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.cache.BookLibraryCache;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test for BookPopularity.
+ */
+public class BookPopularityTest extends TestCase
+{
+    public void testFindsHeavyHittersAmongManyKeys()
+    {
+        BookPopularity popularity = new BookPopularity( 10, 1024, 4, 0, () -> 0L );
+        Random random = new Random( 11 );
+        for ( int i = 0; i < 100_000; i++ )
+        {
+            double pick = random.nextDouble();
+            if ( pick < 0.10 )
+            {
+                popularity.record( "hot-a" );
+            }
+            else if ( pick < 0.17 )
+            {
+                popularity.record( "hot-b" );
+            }
+            else if ( pick < 0.22 )
+            {
+                popularity.record( "hot-c" );
+            }
+            else
+            {
+                // Long tail: 20,000 keys seen a few times each
+                popularity.record( "book-" + random.nextInt( 20_000 ) );
+            }
+        }
+        assertEquals( Arrays.asList( "hot-a", "hot-b", "hot-c" ), popularity.topKeys( 3 ) );
+        long estimate = popularity.estimate( "hot-a" );
+        assertTrue( "count-min never undercounts: " + estimate, estimate >= 9_500 );
+        assertTrue( "overcount too large: " + estimate, estimate < 10_500 + 2 * 100_000 / 1024 );
+    }
+
+    public void testDecayLetsNewFavouritesOvertakeOldOnes()
+    {
+        AtomicLong now = new AtomicLong();
+        BookPopularity popularity = new BookPopularity( 4, 256, 4, 1000, now::get );
+        for ( int i = 0; i < 1000; i++ )
+        {
+            popularity.record( "old" );
+        }
+        now.addAndGet( 5000 );
+        // 5 intervals later the old count is 1000 / 32 = 31
+        assertEquals( 31, popularity.estimate( "old" ) );
+        for ( int i = 0; i < 100; i++ )
+        {
+            popularity.record( "new" );
+        }
+        assertEquals( "new", popularity.topKeys( 1 ).get( 0 ) );
+    }
+
+    public void testForgottenKeysLeaveTheTopList()
+    {
+        BookPopularity popularity = new BookPopularity( 4, 256, 4, 0, () -> 0L );
+        popularity.record( "a" );
+        popularity.record( "a" );
+        popularity.record( "b" );
+        popularity.forget( "a" );
+        assertEquals( Arrays.asList( "b" ), popularity.topKeys( 4 ) );
+    }
+}
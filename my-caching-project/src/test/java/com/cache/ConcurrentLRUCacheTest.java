@@ -0,0 +1,64 @@
+package com.cache;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test for ConcurrentLRUCache.
+ */
+public class ConcurrentLRUCacheTest extends TestCase
+{
+    public void testEvictsLeastRecentlyUsed()
+    {
+        ConcurrentLRUCache<String, String> cache = new ConcurrentLRUCache<String, String>( 3 );
+        cache.put( "key 1", "value 1" );
+        cache.put( "key 2", "value 2" );
+        cache.put( "key 3", "value 3" );
+
+        cache.get( "key 1" );
+        cache.put( "key 4", "value 4" );
+
+        assertEquals( 3, cache.size() );
+        assertNull( cache.get( "key 2" ) );
+        assertEquals( "value 1", cache.get( "key 1" ) );
+        assertEquals( "{key 3=value 3, key 4=value 4, key 1=value 1}", cache.toString() );
+    }
+
+    public void testPutReplacesValue()
+    {
+        ConcurrentLRUCache<String, String> cache = new ConcurrentLRUCache<String, String>( 2 );
+        assertNull( cache.put( "key", "old" ) );
+        assertEquals( "old", cache.put( "key", "new" ) );
+        assertEquals( "new", cache.get( "key" ) );
+        assertEquals( 1, cache.size() );
+    }
+
+    public void testConcurrentAccessStaysBounded() throws InterruptedException
+    {
+        final ConcurrentLRUCache<Integer, Integer> cache = new ConcurrentLRUCache<Integer, Integer>( 100 );
+        Thread[] threads = new Thread[8];
+        for ( int t = 0; t < threads.length; t++ )
+        {
+            final int offset = t * 1000;
+            threads[t] = new Thread( new Runnable()
+            {
+                public void run()
+                {
+                    for ( int i = 0; i < 20000; i++ )
+                    {
+                        int key = offset + ( i % 500 );
+                        if ( cache.get( key ) == null )
+                        {
+                            cache.put( key, key );
+                        }
+                    }
+                }
+            } );
+            threads[t].start();
+        }
+        for ( Thread thread : threads )
+        {
+            thread.join();
+        }
+        assertEquals( 100, cache.size() );
+    }
+}
@@ -0,0 +1,196 @@
+package com.cache.DocumentCache;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.cache.DocumentCache.DetailDocumentCache.Document;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test for DetailDocumentCache.
+ */
+public class DetailDocumentCacheTest extends TestCase
+{
+    private Path directory;
+
+    protected void setUp() throws IOException
+    {
+        directory = Files.createTempDirectory( "document-cache-test" );
+    }
+
+    protected void tearDown()
+    {
+        File[] files = directory.toFile().listFiles();
+        if ( files != null )
+        {
+            for ( File file : files )
+            {
+                file.delete();
+            }
+        }
+        directory.toFile().delete();
+    }
+
+    public void testByteBudgetEvictsByWeight() throws Exception
+    {
+        DetailDocumentCache cache = DetailDocumentCache.withByteBudget( 100, DetailDocumentCacheTest::contentLength,
+            directory.toString() );
+        for ( int i = 0; i < 10; i++ )
+        {
+            cache.saveDocument( document( "doc" + i, 30 ) );
+        }
+
+        assertEquals( 3, cache.getCachedCount() );
+        assertEquals( 90, cache.getCachedWeight() );
+
+        // Small documents: many more of them fit the same budget
+        for ( int i = 0; i < 20; i++ )
+        {
+            cache.saveDocument( document( "small" + i, 5 ) );
+        }
+        assertEquals( 20, cache.getCachedCount() );
+        assertEquals( 100, cache.getCachedWeight() );
+
+        // Evicted documents are still on disk
+        assertEquals( 30, cache.getDocument( "doc0" ).getContent().length() );
+        cache.close();
+    }
+
+    public void testDocumentOverBudgetIsNotCached() throws Exception
+    {
+        DetailDocumentCache cache = DetailDocumentCache.withByteBudget( 100, DetailDocumentCacheTest::contentLength,
+            directory.toString() );
+        cache.saveDocument( document( "small", 40 ) );
+        cache.saveDocument( document( "huge", 500 ) );
+
+        // The huge document does not flush the small one out
+        assertEquals( 1, cache.getCachedCount() );
+        assertEquals( 40, cache.getCachedWeight() );
+
+        // It is still saved, and loading it does not cache it either
+        assertEquals( 500, cache.getDocument( "huge" ).getContent().length() );
+        assertEquals( 1, cache.getCachedCount() );
+
+        // Saving a cached id with an oversized version drops the cached copy
+        cache.saveDocument( document( "small", 200 ) );
+        assertEquals( 0, cache.getCachedCount() );
+        assertEquals( 0, cache.getCachedWeight() );
+        assertEquals( 200, cache.getDocument( "small" ).getContent().length() );
+        cache.close();
+    }
+
+    public void testByteBudgetMustBePositive()
+    {
+        try
+        {
+            DetailDocumentCache.withByteBudget( 0, directory.toString() );
+            fail( "zero byte budget" );
+        }
+        catch ( IllegalArgumentException expected )
+        {
+        }
+    }
+
+    // Concurrent misses on one id share a single disk read; when it fails every waiter gets
+    // the failure, and the next miss reads the disk again instead of seeing a cached error
+    public void testFailedLoadReachesAllWaitersAndIsNotCached() throws Exception
+    {
+        DetailDocumentCache writer = new DetailDocumentCache( 10, directory.toString() );
+        writer.saveDocument( document( "a", 10 ) );
+        writer.close();
+
+        FailOnceCodec codec = new FailOnceCodec();
+        final DetailDocumentCache cache = new DetailDocumentCache( 10, directory.toString(), codec );
+        final AtomicInteger failures = new AtomicInteger();
+        Thread[] readers = new Thread[4];
+        for ( int i = 0; i < readers.length; i++ )
+        {
+            readers[i] = new Thread( new Runnable()
+            {
+                public void run()
+                {
+                    try
+                    {
+                        cache.getDocument( "a" );
+                    }
+                    catch ( IOException e )
+                    {
+                        failures.incrementAndGet();
+                    }
+                    catch ( ClassNotFoundException e )
+                    {
+                        throw new RuntimeException( e );
+                    }
+                }
+            } );
+            readers[i].start();
+        }
+        // One reader is inside decode; wait for the other three to queue behind it
+        long deadline = System.currentTimeMillis() + 5000;
+        while ( cache.getCoalescedLoads() < 3 && System.currentTimeMillis() < deadline )
+        {
+            Thread.sleep( 1 );
+        }
+        assertEquals( 3, cache.getCoalescedLoads() );
+        codec.release.countDown();
+        for ( Thread reader : readers )
+        {
+            reader.join();
+        }
+
+        assertEquals( 4, failures.get() );
+        assertEquals( 1, codec.decodes.get() );
+        assertEquals( 0, cache.getCachedCount() );
+
+        assertEquals( 10, cache.getDocument( "a" ).getContent().length() );
+        assertEquals( 2, codec.decodes.get() );
+        assertEquals( 1, cache.getCachedCount() );
+        cache.close();
+    }
+
+    private static long contentLength( Document document )
+    {
+        return document.getContent().length();
+    }
+
+    private static Document document( String documentId, int length )
+    {
+        StringBuilder content = new StringBuilder( length );
+        for ( int i = 0; i < length; i++ )
+        {
+            content.append( 'x' );
+        }
+        return new Document( documentId, content.toString(), 0, 0 );
+    }
+
+    // The first decode waits for release and then fails; later ones succeed
+    private static final class FailOnceCodec extends DocumentCodec
+    {
+        final CountDownLatch release = new CountDownLatch( 1 );
+        final AtomicInteger decodes = new AtomicInteger();
+
+        @Override
+        public Document decode( ByteBuffer buffer ) throws IOException
+        {
+            if ( decodes.incrementAndGet() == 1 )
+            {
+                try
+                {
+                    release.await();
+                }
+                catch ( InterruptedException e )
+                {
+                    Thread.currentThread().interrupt();
+                }
+                throw new IOException( "disk error" );
+            }
+            return super.decode( buffer );
+        }
+    }
+}
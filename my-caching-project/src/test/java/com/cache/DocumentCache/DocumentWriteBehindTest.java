@@ -0,0 +1,268 @@
+package com.cache.DocumentCache;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import com.cache.DocumentCache.DetailDocumentCache.Document;
+import com.cache.LogStore.SegmentedLogStore;
+import com.cache.codec.Codec;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test for DocumentWriteBehind.
+ */
+public class DocumentWriteBehindTest extends TestCase
+{
+    // Long enough that the writer only runs when woken by flush, close or a full queue
+    private static final long IDLE_INTERVAL = 60000;
+
+    private Path directory;
+    private FailingStore store;
+
+    protected void setUp() throws IOException
+    {
+        directory = Files.createTempDirectory( "write-behind-test" );
+        store = new FailingStore( directory );
+    }
+
+    protected void tearDown() throws IOException
+    {
+        store.close();
+        File[] files = directory.toFile().listFiles();
+        if ( files != null )
+        {
+            for ( File file : files )
+            {
+                file.delete();
+            }
+        }
+        directory.toFile().delete();
+    }
+
+    public void testSavesOfOneIdAreCoalesced() throws IOException
+    {
+        DocumentWriteBehind writeBehind = open( new DocumentCodec(), 16 );
+        writeBehind.submit( document( "a", "v1" ) );
+        writeBehind.submit( document( "a", "v2" ) );
+        writeBehind.submit( document( "a", "v3" ) );
+
+        assertEquals( 2, writeBehind.getCoalescedWrites() );
+        assertEquals( 1, writeBehind.getQueueDepth() );
+        assertEquals( "v3", writeBehind.pendingDocument( "a" ).getContent() );
+
+        writeBehind.flush();
+        assertEquals( 1, writeBehind.getWrittenDocuments() );
+        assertEquals( "v3", stored( "a" ) );
+        assertNull( writeBehind.pendingDocument( "a" ) );
+        writeBehind.close();
+    }
+
+    public void testFlushWritesEverythingSubmittedBefore() throws IOException
+    {
+        DocumentWriteBehind writeBehind = open( new DocumentCodec(), 1000 );
+        for ( int i = 0; i < 300; i++ )
+        {
+            writeBehind.submit( document( "doc" + i, "content" + i ) );
+        }
+        writeBehind.flush();
+
+        assertEquals( 300, writeBehind.getWrittenDocuments() );
+        for ( int i = 0; i < 300; i++ )
+        {
+            assertEquals( "content" + i, stored( "doc" + i ) );
+        }
+        writeBehind.close();
+    }
+
+    // A document stays readable through pendingDocument until it is in the store, and a save
+    // coalesced into it while it is being written is written too
+    public void testSaveStaysVisibleWhileBeingWritten() throws Exception
+    {
+        BlockingCodec codec = new BlockingCodec();
+        final DocumentWriteBehind writeBehind = open( codec, 16 );
+        writeBehind.submit( document( "a", "block" ) );
+        Thread flusher = flushInBackground( writeBehind );
+        assertTrue( codec.blocked.await( 5, TimeUnit.SECONDS ) );
+
+        assertEquals( "block", writeBehind.pendingDocument( "a" ).getContent() );
+        writeBehind.submit( document( "a", "newer" ) );
+        codec.release.countDown();
+        flusher.join();
+
+        writeBehind.flush();
+        assertEquals( "newer", stored( "a" ) );
+        assertNull( writeBehind.pendingDocument( "a" ) );
+        writeBehind.close();
+    }
+
+    public void testCloseDrainsQueue() throws IOException
+    {
+        DocumentWriteBehind writeBehind = open( new DocumentCodec(), 1000 );
+        for ( int i = 0; i < 50; i++ )
+        {
+            writeBehind.submit( document( "doc" + i, "content" + i ) );
+        }
+        writeBehind.close();
+
+        assertEquals( 50, writeBehind.getWrittenDocuments() );
+        assertEquals( "content49", stored( "doc49" ) );
+        try
+        {
+            writeBehind.submit( document( "late", "content" ) );
+            fail( "submit after close" );
+        }
+        catch ( IOException expected )
+        {
+        }
+    }
+
+    public void testFullQueueBlocksUntilWriterCatchesUp() throws IOException
+    {
+        DocumentWriteBehind writeBehind = open( new DocumentCodec(), 1 );
+        for ( int i = 0; i < 20; i++ )
+        {
+            writeBehind.submit( document( "doc" + i, "content" + i ) );
+        }
+        assertTrue( writeBehind.getBackpressureEvents() > 0 );
+
+        writeBehind.flush();
+        assertEquals( 20, writeBehind.getWrittenDocuments() );
+        assertEquals( "content19", stored( "doc19" ) );
+        writeBehind.close();
+    }
+
+    // A failed write stays pending: flush() reports it, reads still see the document and
+    // the next flush writes it once the store recovers
+    public void testFailedWriteStaysPendingAndFlushThrows() throws IOException
+    {
+        DocumentWriteBehind writeBehind = open( new DocumentCodec(), 16 );
+        store.failing = "bad";
+        writeBehind.submit( document( "bad", "content" ) );
+        writeBehind.submit( document( "good", "content" ) );
+        try
+        {
+            writeBehind.flush();
+            fail( "flush with a failed write" );
+        }
+        catch ( IOException expected )
+        {
+        }
+
+        assertTrue( writeBehind.getFailedWrites() >= 1 );
+        assertEquals( "content", writeBehind.pendingDocument( "bad" ).getContent() );
+        assertNull( store.get( "bad" ) );
+        assertEquals( "content", stored( "good" ) );
+
+        writeBehind.submit( document( "bad", "newer" ) );
+        store.failing = null;
+        writeBehind.flush();
+        assertEquals( "newer", stored( "bad" ) );
+        assertNull( writeBehind.pendingDocument( "bad" ) );
+        writeBehind.close();
+    }
+
+    public void testCloseThrowsWhenAWriteKeepsFailing() throws IOException
+    {
+        DocumentWriteBehind writeBehind = open( new DocumentCodec(), 16 );
+        store.failing = "bad";
+        writeBehind.submit( document( "bad", "content" ) );
+        try
+        {
+            writeBehind.close();
+            fail( "close with a failed write" );
+        }
+        catch ( IOException expected )
+        {
+        }
+        assertEquals( "content", writeBehind.pendingDocument( "bad" ).getContent() );
+    }
+
+    private DocumentWriteBehind open( Codec<Document> codec, int queueCapacity )
+    {
+        return new DocumentWriteBehind( store, codec, queueCapacity, IDLE_INTERVAL,
+            DocumentWriteBehind.FsyncPolicy.NEVER );
+    }
+
+    private String stored( String documentId ) throws IOException
+    {
+        ByteBuffer buffer = store.get( documentId );
+        return buffer == null ? null : new DocumentCodec().decode( buffer ).getContent();
+    }
+
+    private static Document document( String documentId, String content )
+    {
+        return new Document( documentId, content, 0, 0 );
+    }
+
+    private static Thread flushInBackground( final DocumentWriteBehind writeBehind )
+    {
+        Thread thread = new Thread( new Runnable()
+        {
+            public void run()
+            {
+                try
+                {
+                    writeBehind.flush();
+                }
+                catch ( IOException e )
+                {
+                    throw new RuntimeException( e );
+                }
+            }
+        } );
+        thread.start();
+        return thread;
+    }
+
+    // Holds the writer inside encode() for documents with content "block"
+    private static final class BlockingCodec extends DocumentCodec
+    {
+        final CountDownLatch blocked = new CountDownLatch( 1 );
+        final CountDownLatch release = new CountDownLatch( 1 );
+
+        @Override
+        public byte[] encode( Document document )
+        {
+            if ( document.getContent().equals( "block" ) )
+            {
+                blocked.countDown();
+                try
+                {
+                    release.await();
+                }
+                catch ( InterruptedException e )
+                {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return super.encode( document );
+        }
+    }
+
+    // Fails every write of the key in failing
+    private static final class FailingStore extends SegmentedLogStore
+    {
+        volatile String failing;
+
+        FailingStore( Path directory ) throws IOException
+        {
+            super( directory, 64 * 1024, 0.5, 0 );
+        }
+
+        @Override
+        public void put( String key, byte[] value ) throws IOException
+        {
+            if ( key.equals( failing ) )
+            {
+                throw new IOException( "disk full" );
+            }
+            super.put( key, value );
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.cache;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test for FrequencySketch.
+ */
+public class FrequencySketchTest extends TestCase
+{
+    public void testCountsIncrements()
+    {
+        FrequencySketch sketch = new FrequencySketch( 512 );
+        for ( int i = 0; i < 5; i++ )
+        {
+            sketch.increment( "hot" );
+        }
+        sketch.increment( "warm" );
+
+        assertEquals( 5, sketch.frequency( "hot" ) );
+        assertEquals( 1, sketch.frequency( "warm" ) );
+        assertEquals( 0, sketch.frequency( "never seen" ) );
+    }
+
+    public void testCountersSaturateAt15()
+    {
+        FrequencySketch sketch = new FrequencySketch( 512 );
+        for ( int i = 0; i < 100; i++ )
+        {
+            sketch.increment( 42 );
+        }
+        assertEquals( 15, sketch.frequency( 42 ) );
+    }
+
+    public void testNeverUndercounts()
+    {
+        FrequencySketch sketch = new FrequencySketch( 1000 );
+        for ( int key = 0; key < 1000; key++ )
+        {
+            for ( int i = 0; i < key % 4; i++ )
+            {
+                sketch.increment( key );
+            }
+        }
+        for ( int key = 0; key < 1000; key++ )
+        {
+            assertTrue( sketch.frequency( key ) >= key % 4 );
+        }
+    }
+
+    // After 10 * maximumSize increments every counter is halved
+    public void testAgingHalvesCounts()
+    {
+        FrequencySketch sketch = new FrequencySketch( 16 );
+        for ( int i = 0; i < 8; i++ )
+        {
+            sketch.increment( "old" );
+        }
+        assertEquals( 8, sketch.frequency( "old" ) );
+
+        for ( int key = 0; key < 400 && sketch.frequency( "old" ) == 8; key++ )
+        {
+            sketch.increment( key );
+        }
+        assertEquals( 4, sketch.frequency( "old" ) );
+    }
+}
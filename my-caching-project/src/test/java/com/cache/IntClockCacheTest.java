@@ -0,0 +1,142 @@
+package com.cache;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test for IntClockCache.
+ */
+public class IntClockCacheTest extends TestCase
+{
+    public void testGetAndPut()
+    {
+        IntClockCache<String> cache = new IntClockCache<String>( 4 );
+        assertNull( cache.put( 1, "one" ) );
+        assertNull( cache.put( 0, "zero" ) );
+        assertNull( cache.put( -7, "minus seven" ) );
+        assertEquals( "one", cache.put( 1, "uno" ) );
+
+        assertEquals( "uno", cache.get( 1 ) );
+        assertEquals( "zero", cache.get( 0 ) );
+        assertEquals( "minus seven", cache.get( -7 ) );
+        assertNull( cache.get( 2 ) );
+        assertEquals( 3, cache.size() );
+    }
+
+    public void testClockSparesReferencedEntries()
+    {
+        IntClockCache<String> cache = new IntClockCache<String>( 3 );
+        cache.put( 1, "one" );
+        cache.put( 2, "two" );
+        cache.put( 3, "three" );
+        cache.get( 1 );
+
+        cache.put( 4, "four" );
+
+        assertEquals( 3, cache.size() );
+        assertEquals( "one", cache.get( 1 ) );
+        assertNull( cache.get( 2 ) );
+        assertEquals( "four", cache.get( 4 ) );
+    }
+
+    public void testMatchesHashMapUnderRandomRemoves()
+    {
+        IntClockCache<Integer> cache = new IntClockCache<Integer>( 1000 );
+        Map<Integer, Integer> expected = new HashMap<Integer, Integer>();
+        Random random = new Random( 7 );
+        for ( int i = 0; i < 100000; i++ )
+        {
+            int key = random.nextInt( 900 );
+            if ( random.nextBoolean() )
+            {
+                assertEquals( expected.put( key, i ), cache.put( key, i ) );
+            }
+            else
+            {
+                assertEquals( expected.remove( key ), cache.remove( key ) );
+            }
+        }
+        assertEquals( expected.size(), cache.size() );
+        for ( Map.Entry<Integer, Integer> entry : expected.entrySet() )
+        {
+            assertEquals( entry.getValue(), cache.get( entry.getKey() ) );
+        }
+    }
+
+    public void testLongKeys()
+    {
+        LongClockCache<String> cache = new LongClockCache<String>( 2 );
+        cache.put( 1L << 40, "big" );
+        cache.put( 1L, "small" );
+        assertEquals( "big", cache.get( 1L << 40 ) );
+        assertEquals( "small", cache.get( 1L ) );
+        assertNull( cache.get( 0L ) );
+    }
+
+    // Readers racing a writer that keeps evicting from a single small segment: optimistic
+    // reads must never fail, and a hit must return the key's own value
+    public void testOptimisticReadsRaceEvictions() throws InterruptedException
+    {
+        final ConcurrentIntClockCache<Integer> cache = new ConcurrentIntClockCache<Integer>( 64, 1 );
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        final long deadline = System.nanoTime() + 500000000L;
+        Thread writer = new Thread( new Runnable()
+        {
+            public void run()
+            {
+                Random random = new Random( 1 );
+                while ( System.nanoTime() < deadline && failure.get() == null )
+                {
+                    int key = random.nextInt( 256 );
+                    cache.put( key, key );
+                }
+            }
+        } );
+        Thread[] readers = new Thread[3];
+        for ( int r = 0; r < readers.length; r++ )
+        {
+            final int seed = r + 2;
+            readers[r] = new Thread( new Runnable()
+            {
+                public void run()
+                {
+                    Random random = new Random( seed );
+                    try
+                    {
+                        while ( System.nanoTime() < deadline && failure.get() == null )
+                        {
+                            int key = random.nextInt( 256 );
+                            Integer value = cache.get( key );
+                            if ( value != null && value != key )
+                            {
+                                throw new AssertionError( "key " + key + " returned " + value );
+                            }
+                        }
+                    }
+                    catch ( Throwable t )
+                    {
+                        failure.compareAndSet( null, t );
+                    }
+                }
+            } );
+        }
+        writer.start();
+        for ( Thread reader : readers )
+        {
+            reader.start();
+        }
+        writer.join();
+        for ( Thread reader : readers )
+        {
+            reader.join();
+        }
+        if ( failure.get() != null )
+        {
+            throw new AssertionError( failure.get() );
+        }
+    }
+}
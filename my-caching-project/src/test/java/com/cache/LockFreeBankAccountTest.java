@@ -0,0 +1,98 @@
+package com.cache;
+
+import java.util.concurrent.CountDownLatch;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test for LockFreeBankAccount.
+ */
+public class LockFreeBankAccountTest extends TestCase
+{
+    public void testConcurrentDepositsAndWithdrawalsConserveMoney() throws Exception
+    {
+        final LockFreeBankAccount account = new LockFreeBankAccount( null );
+        final int threads = 4;
+        final int operations = 20_000;
+        final CountDownLatch start = new CountDownLatch( 1 );
+        Thread[] workers = new Thread[threads * 2];
+        for ( int t = 0; t < threads; t++ )
+        {
+            workers[t] = new Thread( () -> {
+                await( start );
+                for ( int i = 0; i < operations; i++ )
+                {
+                    account.deposit( 3 );
+                }
+            } );
+            // Withdrawers take all but threads * operations of what is deposited, so they
+            // often wait for funds but never wait forever
+            workers[threads + t] = new Thread( () -> {
+                await( start );
+                for ( int i = 0; i < operations; i++ )
+                {
+                    account.withdraw( 2 );
+                }
+            } );
+        }
+        for ( Thread worker : workers )
+        {
+            worker.start();
+        }
+        start.countDown();
+        for ( Thread worker : workers )
+        {
+            worker.join( 30_000 );
+            assertFalse( "stuck", worker.isAlive() );
+        }
+        assertEquals( threads * operations, account.getBalance() );
+    }
+
+    public void testWaitersAreServedInOrder() throws Exception
+    {
+        final LockFreeBankAccount account = new LockFreeBankAccount( null );
+        Thread big = new Thread( () -> account.withdraw( 100 ) );
+        big.start();
+        waitUntilParked( big );
+        Thread small = new Thread( () -> account.withdraw( 10 ) );
+        small.start();
+        waitUntilParked( small );
+
+        // Enough for the small withdrawal, but the big one is first in line
+        account.deposit( 50 );
+        assertFalse( account.tryWithdraw( 10 ) );
+        Thread.sleep( 100 );
+        assertTrue( big.isAlive() );
+        assertTrue( small.isAlive() );
+        assertEquals( 50, account.getBalance() );
+
+        account.deposit( 60 );
+        big.join( 5000 );
+        small.join( 5000 );
+        assertFalse( big.isAlive() );
+        assertFalse( small.isAlive() );
+        assertEquals( 0, account.getBalance() );
+    }
+
+    private static void waitUntilParked( Thread thread ) throws InterruptedException
+    {
+        long deadline = System.currentTimeMillis() + 5000;
+        while ( thread.getState() != Thread.State.WAITING )
+        {
+            assertTrue( "thread never parked", System.currentTimeMillis() < deadline );
+            Thread.sleep( 5 );
+        }
+    }
+
+    private static void await( CountDownLatch latch )
+    {
+        try
+        {
+            latch.await();
+        }
+        catch ( InterruptedException e )
+        {
+            throw new IllegalStateException( e );
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.cache.LogStore;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test for BoundedLogStore.
+ */
+public class BoundedLogStoreTest extends TestCase
+{
+    private Path directory;
+
+    protected void setUp() throws IOException
+    {
+        directory = Files.createTempDirectory( "bounded-store-test" );
+    }
+
+    protected void tearDown()
+    {
+        File[] files = directory.toFile().listFiles();
+        if ( files != null )
+        {
+            for ( File file : files )
+            {
+                file.delete();
+            }
+        }
+        directory.toFile().delete();
+    }
+
+    public void testEvictsLeastRecentlyUsedOverBudget() throws IOException
+    {
+        // Each record is 15 bytes of header, a 2 byte key and 8 + 10 bytes of value
+        BoundedLogStore store = open( 35 * 3, 0 );
+        store.put( "k1", bytes( "0123456789" ) );
+        store.put( "k2", bytes( "0123456789" ) );
+        store.put( "k3", bytes( "0123456789" ) );
+        assertNotNull( store.get( "k1" ) );
+
+        store.put( "k4", bytes( "0123456789" ) );
+
+        assertEquals( 3, store.size() );
+        assertNull( store.get( "k2" ) );
+        assertEquals( "0123456789", string( store.get( "k1" ) ) );
+        assertEquals( 1, store.evictions() );
+        assertTrue( store.liveBytes() <= store.maxBytes() );
+        store.close();
+    }
+
+    public void testWriteOrderAndAgeSurviveRestart() throws IOException, InterruptedException
+    {
+        BoundedLogStore store = open( 1024 * 1024, 0 );
+        store.put( "old", bytes( "a" ) );
+        Thread.sleep( 500 );
+        store.put( "new", bytes( "b" ) );
+        store.close();
+
+        store = open( 1024 * 1024, 250 );
+        assertNull( store.get( "old" ) );
+        assertEquals( "b", string( store.get( "new" ) ) );
+        store.close();
+    }
+
+    private BoundedLogStore open( long maxBytes, long maxAgeMillis ) throws IOException
+    {
+        return new BoundedLogStore( new SegmentedLogStore( directory, 4096, 0.5, 0 ), maxBytes, maxAgeMillis );
+    }
+
+    private static byte[] bytes( String value )
+    {
+        return value.getBytes( StandardCharsets.UTF_8 );
+    }
+
+    private static String string( ByteBuffer buffer )
+    {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get( bytes );
+        return new String( bytes, StandardCharsets.UTF_8 );
+    }
+}
@@ -0,0 +1,187 @@
+package com.cache.LogStore;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test for SegmentedLogStore.
+ */
+public class SegmentedLogStoreTest extends TestCase
+{
+    private Path directory;
+
+    protected void setUp() throws IOException
+    {
+        directory = Files.createTempDirectory( "log-store-test" );
+    }
+
+    protected void tearDown()
+    {
+        File[] files = directory.toFile().listFiles();
+        if ( files != null )
+        {
+            for ( File file : files )
+            {
+                file.delete();
+            }
+        }
+        directory.toFile().delete();
+    }
+
+    public void testPutGetRemove() throws IOException
+    {
+        SegmentedLogStore store = open();
+        store.put( "a", bytes( "first" ) );
+        store.put( "b", bytes( "second" ) );
+        store.put( "a", bytes( "third" ) );
+        assertTrue( store.remove( "b" ) );
+        assertFalse( store.remove( "missing" ) );
+
+        assertEquals( "third", string( store.get( "a" ) ) );
+        assertNull( store.get( "b" ) );
+        assertEquals( 1, store.size() );
+        store.close();
+    }
+
+    public void testIndexIsRebuiltOnRestart() throws IOException
+    {
+        SegmentedLogStore store = open();
+        for ( int i = 0; i < 500; i++ )
+        {
+            store.put( "key" + i, bytes( "value" + i ) );
+        }
+        store.put( "key7", bytes( "updated" ) );
+        store.remove( "key8" );
+        store.close();
+
+        store = open();
+        assertEquals( 499, store.size() );
+        assertEquals( "updated", string( store.get( "key7" ) ) );
+        assertNull( store.get( "key8" ) );
+        assertEquals( "value499", string( store.get( "key499" ) ) );
+        assertTrue( store.segmentCount() > 1 );
+        store.close();
+    }
+
+    public void testCompactionDropsDeadRecords() throws IOException
+    {
+        SegmentedLogStore store = open();
+        for ( int round = 0; round < 20; round++ )
+        {
+            for ( int i = 0; i < 50; i++ )
+            {
+                store.put( "key" + i, bytes( "round" + round ) );
+            }
+        }
+        store.remove( "key0" );
+        long usedBefore = store.usedBytes();
+
+        store.compact();
+
+        assertTrue( store.compactedSegments() > 0 );
+        assertTrue( store.usedBytes() < usedBefore );
+        assertEquals( "round19", string( store.get( "key49" ) ) );
+        store.close();
+
+        store = open();
+        assertEquals( 49, store.size() );
+        assertNull( store.get( "key0" ) );
+        assertEquals( "round19", string( store.get( "key1" ) ) );
+        store.close();
+    }
+
+    public void testKeyLongerThan65535BytesIsRejected() throws IOException
+    {
+        SegmentedLogStore store = open();
+        StringBuilder key = new StringBuilder();
+        for ( int i = 0; i < 65536; i++ )
+        {
+            key.append( 'k' );
+        }
+        try
+        {
+            store.put( key.toString(), bytes( "value" ) );
+            fail( "oversized key" );
+        }
+        catch ( IllegalArgumentException expected )
+        {
+        }
+        assertEquals( 0, store.size() );
+
+        key.setLength( 65535 );
+        store.put( key.toString(), bytes( "value" ) );
+        store.close();
+
+        store = open();
+        assertEquals( "value", string( store.get( key.toString() ) ) );
+        store.close();
+    }
+
+    public void testConcurrentCompactionsKeepEveryKey() throws Exception
+    {
+        final SegmentedLogStore store = open();
+        for ( int round = 0; round < 20; round++ )
+        {
+            for ( int i = 0; i < 50; i++ )
+            {
+                store.put( "key" + i, bytes( "round" + round ) );
+            }
+        }
+        Thread[] compactors = new Thread[4];
+        final IOException[] failure = new IOException[1];
+        for ( int t = 0; t < compactors.length; t++ )
+        {
+            compactors[t] = new Thread( new Runnable()
+            {
+                public void run()
+                {
+                    try
+                    {
+                        store.compact();
+                    }
+                    catch ( IOException e )
+                    {
+                        failure[0] = e;
+                    }
+                }
+            } );
+            compactors[t].start();
+        }
+        for ( Thread compactor : compactors )
+        {
+            compactor.join();
+        }
+        assertNull( failure[0] );
+        assertEquals( 50, store.size() );
+        assertEquals( "round19", string( store.get( "key0" ) ) );
+        store.close();
+
+        SegmentedLogStore reopened = open();
+        assertEquals( 50, reopened.size() );
+        assertEquals( "round19", string( reopened.get( "key49" ) ) );
+        reopened.close();
+    }
+
+    private SegmentedLogStore open() throws IOException
+    {
+        return new SegmentedLogStore( directory, 4096, 0.5, 0 );
+    }
+
+    private static byte[] bytes( String value )
+    {
+        return value.getBytes( StandardCharsets.UTF_8 );
+    }
+
+    private static String string( ByteBuffer buffer )
+    {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get( bytes );
+        return new String( bytes, StandardCharsets.UTF_8 );
+    }
+}
@@ -0,0 +1,126 @@
+package com.cache;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test for MyLRUCache.
+ */
+public class MyLRUCacheTest extends TestCase
+{
+    public void testEvictsLeastRecentlyUsed()
+    {
+        MyLRUCache<String, String> cache = new MyLRUCache<String, String>( 3 );
+        cache.put( "key 1", "value 1" );
+        cache.put( "key 2", "value 2" );
+        cache.put( "key 3", "value 3" );
+        cache.get( "key 1" );
+        cache.put( "key 4", "value 4" );
+
+        assertEquals( 3, cache.size() );
+        assertFalse( cache.containsKey( "key 2" ) );
+        assertEquals( "{key 3=value 3, key 1=value 1, key 4=value 4}", cache.toString() );
+    }
+
+    // A one-off key stays in the window and is rejected against a frequently used main entry
+    public void testAdmissionRejectsOneOffKeys()
+    {
+        MyLRUCache<String, Integer> cache = hotCache();
+        cache.put( "scan0", 0 );
+        cache.put( "scan1", 1 );
+        assertTrue( cache.inWindow( "scan0" ) );
+
+        cache.put( "scan2", 2 );
+
+        assertFalse( cache.containsKey( "scan0" ) );
+        assertEquals( 198, hotKeys( cache ) );
+        assertEquals( 200, cache.size() );
+    }
+
+    public void testAdmissionAcceptsFrequentKeys()
+    {
+        MyLRUCache<String, Integer> cache = hotCache();
+        for ( int i = 0; i < 10; i++ )
+        {
+            assertNull( cache.get( "popular" ) );
+        }
+        cache.put( "popular", 1 );
+        cache.put( "scan0", 0 );
+        cache.put( "scan1", 1 );
+
+        // Replaced one of the main region's entries
+        assertTrue( cache.inMain( "popular" ) );
+        assertEquals( 197, hotKeys( cache ) );
+        assertEquals( 200, cache.size() );
+    }
+
+    // With admission enabled the views and bulk operations cover the window as well
+    public void testViewsIncludeWindow()
+    {
+        MyLRUCache<String, Integer> cache = new MyLRUCache<String, Integer>( 200, true );
+        Map<String, Integer> expected = new HashMap<String, Integer>();
+        for ( int i = 0; i < 5; i++ )
+        {
+            expected.put( "key" + i, i );
+        }
+        cache.putAll( expected );
+        assertTrue( cache.inWindow( "key4" ) );
+
+        assertEquals( expected, cache );
+        assertEquals( cache, expected );
+        assertEquals( expected.hashCode(), cache.hashCode() );
+        assertEquals( expected.keySet(), cache.keySet() );
+        assertEquals( 5, cache.values().size() );
+        assertTrue( cache.values().contains( 4 ) );
+        assertTrue( cache.containsValue( 4 ) );
+        assertEquals( Integer.valueOf( 4 ), cache.getOrDefault( "key4", -1 ) );
+        assertEquals( Integer.valueOf( -1 ), cache.getOrDefault( "missing", -1 ) );
+        assertTrue( cache.toString().contains( "key4=4" ) );
+
+        Iterator<String> keys = cache.keySet().iterator();
+        while ( keys.hasNext() )
+        {
+            if ( keys.next().equals( "key4" ) )
+            {
+                keys.remove();
+            }
+        }
+        assertFalse( cache.containsKey( "key4" ) );
+        assertEquals( 4, cache.size() );
+    }
+
+    private static int hotKeys( MyLRUCache<String, Integer> cache )
+    {
+        int count = 0;
+        for ( String key : cache.keySet() )
+        {
+            if ( key.startsWith( "hot" ) )
+            {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // Capacity 200: a main region of 198 and a window of 2, filled with hot keys read three
+    // times each. Two of them are still in the window
+    private static MyLRUCache<String, Integer> hotCache()
+    {
+        MyLRUCache<String, Integer> cache = new MyLRUCache<String, Integer>( 200, true );
+        for ( int i = 0; i < 200; i++ )
+        {
+            cache.put( "hot" + i, i );
+        }
+        for ( int round = 0; round < 3; round++ )
+        {
+            for ( int i = 0; i < 200; i++ )
+            {
+                cache.get( "hot" + i );
+            }
+        }
+        return cache;
+    }
+}
@@ -0,0 +1,53 @@
+package com.cache;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test for TwoLevelCache.
+ */
+public class TwoLevelCacheTest extends TestCase
+{
+    public void testL1VictimsAreDemotedNotDropped()
+    {
+        TwoLevelCache cache = new TwoLevelCache( 2, 3 );
+        for ( int i = 1; i <= 5; i++ )
+        {
+            cache.put( String.valueOf( i ), new Product( "Product" + i ) );
+        }
+
+        assertEquals( 2, cache.l1Size() );
+        assertEquals( 3, cache.l2Size() );
+        for ( int i = 1; i <= 5; i++ )
+        {
+            assertNotNull( cache.get( String.valueOf( i ) ) );
+        }
+    }
+
+    public void testLevelsStayExclusiveAndBounded()
+    {
+        TwoLevelCache cache = new TwoLevelCache( 2, 3 );
+        for ( int i = 1; i <= 100; i++ )
+        {
+            cache.put( String.valueOf( i % 7 ), new Product( "Product" + i ) );
+            cache.get( String.valueOf( ( i * 3 ) % 7 ) );
+            assertTrue( cache.l1Size() <= 2 );
+            assertTrue( cache.l2Size() <= 3 );
+        }
+        assertEquals( 5, cache.size() );
+    }
+
+    public void testL2HitIsPromotedAndLeastRecentlyUsedIsEvicted()
+    {
+        TwoLevelCache cache = new TwoLevelCache( 1, 2 );
+        cache.put( "a", new Product( "A" ) );
+        cache.put( "b", new Product( "B" ) );
+        cache.put( "c", new Product( "C" ) );
+        // L1 = [c], L2 = [a, b]; the L2 hit on a moves c down, so b is now the LRU entry
+        assertEquals( "A", cache.get( "a" ).getName() );
+
+        cache.put( "d", new Product( "D" ) );
+
+        assertNull( cache.get( "b" ) );
+        assertEquals( "C", cache.get( "c" ).getName() );
+    }
+}
@@ -0,0 +1,234 @@
+package com.cache.UserProduct.HiraricalCachingExample;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test for HierarchicalCache (HierarchicalCacheTest is the load-test demo).
+ */
+public class HierarchicalCacheUnitTest extends TestCase
+{
+    private Path directory;
+
+    protected void setUp() throws IOException
+    {
+        directory = Files.createTempDirectory( "hierarchical-cache-test" );
+    }
+
+    protected void tearDown()
+    {
+        File[] files = directory.toFile().listFiles();
+        if ( files != null )
+        {
+            for ( File file : files )
+            {
+                file.delete();
+            }
+        }
+        directory.toFile().delete();
+    }
+
+    // Every product in L3 is found, whether its file predates the filter or was written after
+    public void testL3FilterHasNoFalseNegatives() throws Exception
+    {
+        HierarchicalCache writer = open();
+        for ( int i = 0; i < 500; i++ )
+        {
+            writer.put( "old" + i, product( "old" + i ) );
+        }
+        writer.close();
+
+        // L1 and L2 of one product each, so nearly every get goes to L3
+        HierarchicalCache cache = open().enableL3Filter( 1000, 0.01 );
+        for ( int i = 0; i < 500; i++ )
+        {
+            cache.put( "new" + i, product( "new" + i ) );
+        }
+        for ( int i = 0; i < 500; i++ )
+        {
+            assertEquals( "old" + i, cache.get( "old" + i ).getId() );
+            assertEquals( "new" + i, cache.get( "new" + i ).getId() );
+        }
+        cache.close();
+    }
+
+    public void testL3FilterFalsePositiveRateIsBounded() throws Exception
+    {
+        HierarchicalCache cache = open().enableL3Filter( 1000, 0.01 );
+        for ( int i = 0; i < 1000; i++ )
+        {
+            cache.put( "present" + i, product( "present" + i ) );
+        }
+        for ( int i = 0; i < 10000; i++ )
+        {
+            assertNull( cache.get( "absent" + i ) );
+        }
+        // Configured for 1%; allow for sampling noise over 10000 lookups
+        double rate = cache.getL3FilterFalsePositiveRate();
+        assertTrue( "false positive rate " + rate, rate <= 0.02 );
+        cache.close();
+    }
+
+    public void testAsyncPutReachesL3AndAsyncGetLoadsIt() throws Exception
+    {
+        HierarchicalCache cache = open();
+        CompletableFuture<Void> write = cache.putAsync( "a", product( "a" ) );
+        write.get( 5, TimeUnit.SECONDS );
+        assertTrue( Files.exists( directory.resolve( "a" ) ) );
+
+        // An L1 hit completes inline
+        assertTrue( cache.getAsync( "a" ).isDone() );
+        cache.close();
+
+        HierarchicalCache reopened = open();
+        assertEquals( "a", reopened.getAsync( "a" ).get( 5, TimeUnit.SECONDS ).getId() );
+        assertNull( reopened.getAsync( "missing" ).get( 5, TimeUnit.SECONDS ) );
+        reopened.close();
+    }
+
+    public void testAsyncFailuresCompleteExceptionally() throws Exception
+    {
+        HierarchicalCache cache = open();
+        // No such subdirectory, so the L3 write fails
+        try
+        {
+            cache.putAsync( "no-such-dir/a", product( "a" ) ).get( 5, TimeUnit.SECONDS );
+            fail( "write into a missing directory" );
+        }
+        catch ( ExecutionException expected )
+        {
+            assertTrue( expected.getCause() instanceof IOException );
+        }
+
+        Files.write( directory.resolve( "corrupt" ), new byte[] { 1 } );
+        try
+        {
+            cache.getAsync( "corrupt" ).get( 5, TimeUnit.SECONDS );
+            fail( "corrupt L3 file" );
+        }
+        catch ( ExecutionException expected )
+        {
+            assertTrue( expected.getCause() instanceof IOException );
+        }
+        // The failed load is not remembered
+        Files.write( directory.resolve( "corrupt" ), new ProductCodec().encode( product( "corrupt" ) ) );
+        assertEquals( "corrupt", cache.getAsync( "corrupt" ).get( 5, TimeUnit.SECONDS ).getId() );
+        cache.close();
+    }
+
+    // Writes of one key reach L3 in order, and a get that misses L1/L2 waits for them
+    public void testAsyncWritesOfOneKeyStayInOrder() throws Exception
+    {
+        HierarchicalCache cache = open();
+        CompletableFuture<Void> last = null;
+        for ( int version = 0; version < 20; version++ )
+        {
+            last = cache.putAsync( "a", new Product( "a", "v" + version, version ) );
+        }
+        // Pushes "a" out of L1 and L2
+        cache.putAsync( "b", product( "b" ) );
+        cache.putAsync( "c", product( "c" ) );
+
+        assertEquals( "v19", cache.getAsync( "a" ).get( 5, TimeUnit.SECONDS ).getName() );
+        last.get( 5, TimeUnit.SECONDS );
+        cache.close();
+
+        HierarchicalCache reopened = open();
+        assertEquals( "v19", reopened.get( "a" ).getName() );
+        reopened.close();
+    }
+
+    // In write-back mode putAsync completes at once; reads see the newest value before it is in L3
+    public void testAsyncPutWithWriteBack() throws Exception
+    {
+        HierarchicalCache cache = open().enableWriteBack( TimeUnit.MINUTES.toMillis( 1 ) );
+        assertTrue( cache.putAsync( "a", new Product( "a", "v1", 1 ) ).isDone() );
+        assertTrue( cache.putAsync( "a", new Product( "a", "v2", 2 ) ).isDone() );
+        cache.putAsync( "b", product( "b" ) );
+        cache.putAsync( "c", product( "c" ) );
+
+        assertEquals( "v2", cache.getAsync( "a" ).get( 5, TimeUnit.SECONDS ).getName() );
+        cache.close();
+
+        HierarchicalCache reopened = open();
+        assertEquals( "v2", reopened.get( "a" ).getName() );
+        reopened.close();
+    }
+
+    // A dirty product is written as soon as L2 evicts it, long before the durability window
+    public void testWriteBackWritesOnEviction() throws Exception
+    {
+        HierarchicalCache cache = open().enableWriteBack( TimeUnit.MINUTES.toMillis( 1 ) );
+        cache.put( "a", product( "a" ) );
+        assertFalse( Files.exists( directory.resolve( "a" ) ) );
+
+        cache.put( "b", product( "b" ) );
+        long deadline = System.currentTimeMillis() + 5000;
+        while ( !Files.exists( directory.resolve( "a" ) ) && System.currentTimeMillis() < deadline )
+        {
+            Thread.sleep( 5 );
+        }
+        assertTrue( Files.exists( directory.resolve( "a" ) ) );
+        assertFalse( Files.exists( directory.resolve( "b" ) ) );
+        cache.close();
+    }
+
+    public void testWriteBackFlushesOnClose() throws Exception
+    {
+        HierarchicalCache cache = new HierarchicalCache( 100, 100, directory.toString(), new ProductCodec() )
+            .enableWriteBack( TimeUnit.MINUTES.toMillis( 1 ) );
+        for ( int i = 0; i < 50; i++ )
+        {
+            cache.put( "p" + i, product( "p" + i ) );
+            cache.put( "p" + i, new Product( "p" + i, "latest", i ) );
+        }
+        assertFalse( Files.exists( directory.resolve( "p0" ) ) );
+        cache.close();
+
+        HierarchicalCache reopened = open();
+        for ( int i = 0; i < 50; i++ )
+        {
+            assertEquals( "latest", reopened.get( "p" + i ).getName() );
+        }
+        reopened.close();
+    }
+
+    // A product that cannot be written stays dirty: flush reports it, and a later flush retries it
+    public void testWriteBackFailureIsReportedAndRetried() throws Exception
+    {
+        HierarchicalCache cache = open().enableWriteBack( TimeUnit.MINUTES.toMillis( 1 ) );
+        cache.put( "sub/a", product( "a" ) );
+        try
+        {
+            cache.flush();
+            fail( "write into a missing directory" );
+        }
+        catch ( IOException expected )
+        {
+        }
+        assertEquals( "a", cache.get( "sub/a" ).getId() );
+
+        Files.createDirectory( directory.resolve( "sub" ) );
+        cache.flush();
+        assertTrue( Files.exists( directory.resolve( "sub" ).resolve( "a" ) ) );
+        cache.close();
+        Files.delete( directory.resolve( "sub" ).resolve( "a" ) );
+    }
+
+    private HierarchicalCache open() throws IOException
+    {
+        return new HierarchicalCache( 1, 1, directory.toString(), new ProductCodec() );
+    }
+
+    private static Product product( String id )
+    {
+        return new Product( id, "Product " + id, 9.99 );
+    }
+}
@@ -0,0 +1,77 @@
+package com.cache.WeatherDataCachingSystem;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test for TimingWheel and WeatherCache expiry.
+ */
+public class TimingWheelTest extends TestCase
+{
+    public void testTimersFireOnTheirTickAcrossLevels()
+    {
+        long start = 1_000_000;
+        TimingWheel<Long> wheel = new TimingWheel<Long>( 10, start );
+        Random random = new Random( 3 );
+        List<Long> deadlines = new ArrayList<Long>();
+        for ( int i = 0; i < 5000; i++ )
+        {
+            // Spread over several levels: up to ~64^3 ticks ahead
+            long deadline = start + 1 + (long) ( random.nextDouble() * 10 * 300_000 );
+            deadlines.add( deadline );
+            wheel.schedule( deadline, deadline );
+        }
+
+        final List<Long> fired = new ArrayList<Long>();
+        final long[] now = new long[1];
+        for ( now[0] = start; wheel.size() > 0; now[0] += 7 )
+        {
+            wheel.advance( now[0], deadline -> {
+                assertTrue( "fired early", deadline <= now[0] );
+                assertTrue( "fired late", deadline > now[0] - 7 - 10 );
+                fired.add( deadline );
+            } );
+        }
+        assertEquals( deadlines.size(), fired.size() );
+    }
+
+    public void testCancelledTimersDoNotFire()
+    {
+        TimingWheel<String> wheel = new TimingWheel<String>( 1, 0 );
+        TimingWheel.Timer<String> kept = wheel.schedule( "kept", 100 );
+        TimingWheel.Timer<String> cancelled = wheel.schedule( "cancelled", 100 );
+        wheel.cancel( cancelled );
+        wheel.reschedule( kept, 5000 );
+
+        final List<String> fired = new ArrayList<String>();
+        wheel.advance( 4999, fired::add );
+        assertTrue( fired.isEmpty() );
+        wheel.advance( 5000, fired::add );
+        assertEquals( 1, fired.size() );
+        assertEquals( "kept", fired.get( 0 ) );
+        assertEquals( 0, wheel.size() );
+    }
+
+    public void testWeatherCacheExpiresAndEvicts()
+    {
+        final long[] now = { 0 };
+        WeatherCache cache = new WeatherCache( 2, 1000, () -> now[0] );
+        cache.addWeatherData( "London", new WeatherData( "Rain", 12, 80 ) );
+        cache.addWeatherData( "Paris", new WeatherData( "Sunny", 20, 40 ) );
+        cache.getWeatherData( "London" );
+        cache.addWeatherData( "Tokyo", new WeatherData( "Cloudy", 18, 60 ) );
+
+        assertNull( cache.getWeatherData( "Paris" ) );
+        assertNotNull( cache.getWeatherData( "London" ) );
+        assertEquals( 2, cache.size() );
+        assertEquals( 1, cache.getEvictions() );
+
+        now[0] = 1500;
+        assertNull( cache.getWeatherData( "London" ) );
+        assertEquals( 0, cache.size() );
+        assertEquals( 2, cache.getExpirations() );
+    }
+}
@@ -0,0 +1,71 @@
+package com.cache.WeatherDataCachingSystem;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test for WeatherHistory.
+ */
+public class WeatherHistoryTest extends TestCase
+{
+    public void testRingKeepsNewestSamplesAndSummarizesWindow()
+    {
+        WeatherHistory history = new WeatherHistory( 10 );
+        for ( int i = 0; i < 25; i++ )
+        {
+            assertTrue( history.record( "London", 1000L * i, i, 50 + i / 2.0 ) );
+        }
+        assertEquals( 10, history.size( "London" ) );
+
+        // Samples 15..24 are left; the window [18s, 22s) holds 18, 19, 20, 21
+        WeatherHistory.Summary summary = history.summarize( "London", 18_000, 22_000 );
+        assertEquals( 4, summary.count );
+        assertEquals( 18.0, summary.minTemperature, 1e-9 );
+        assertEquals( 21.0, summary.maxTemperature, 1e-9 );
+        assertEquals( 19.5, summary.avgTemperature, 1e-9 );
+        assertEquals( 59.0, summary.minHumidity, 1e-9 );
+        assertEquals( 60.5, summary.maxHumidity, 1e-9 );
+
+        long[] times = new long[20];
+        double[] temperatures = new double[20];
+        double[] humidities = new double[20];
+        assertEquals( 10, history.range( "London", 0, Long.MAX_VALUE, times, temperatures, humidities ) );
+        assertEquals( 15_000, times[0] );
+        assertEquals( 24.0, temperatures[9], 1e-9 );
+
+        assertEquals( 0, history.summarize( "Paris", 0, Long.MAX_VALUE ).count );
+    }
+
+    public void testOutOfOrderSamplesAreDropped()
+    {
+        WeatherHistory history = new WeatherHistory( 4 );
+        assertTrue( history.record( "London", 2000, 10, 50 ) );
+        assertFalse( history.record( "London", 1000, 11, 50 ) );
+        assertEquals( 1, history.size( "London" ) );
+    }
+
+    public void testValuesAreKeptToHundredths()
+    {
+        WeatherHistory history = new WeatherHistory( 4 );
+        history.record( "London", 0, 21.456, 63.004 );
+        WeatherHistory.Summary summary = history.summarize( "London", 0, 1 );
+        assertEquals( 21.46, summary.avgTemperature, 1e-9 );
+        assertEquals( 63.0, summary.avgHumidity, 1e-9 );
+    }
+
+    public void testGapsLongerThanTheIntOffsetRebase()
+    {
+        WeatherHistory history = new WeatherHistory( 8 );
+        long day = 24L * 60 * 60 * 1000;
+        history.record( "London", 0, 1, 50 );
+        history.record( "London", 10 * day, 2, 50 );
+        // 30 days after the first sample: it can no longer be expressed and is dropped
+        history.record( "London", 30 * day, 3, 50 );
+        assertEquals( 2, history.size( "London" ) );
+
+        long[] times = new long[8];
+        int count = history.range( "London", 0, Long.MAX_VALUE, times, new double[8], new double[8] );
+        assertEquals( 2, count );
+        assertEquals( 10 * day, times[0] );
+        assertEquals( 30 * day, times[1] );
+    }
+}
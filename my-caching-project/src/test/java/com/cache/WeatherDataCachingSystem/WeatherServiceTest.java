@@ -0,0 +1,208 @@
+package com.cache.WeatherDataCachingSystem;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test for WeatherService refresh-ahead, virtual-thread and batching modes.
+ */
+public class WeatherServiceTest extends TestCase
+{
+    public void testSoftStaleReadsReturnCachedValueAndRefreshOnce() throws Exception
+    {
+        final AtomicLong now = new AtomicLong( 1_000_000 );
+        final AtomicInteger calls = new AtomicInteger();
+        final CountDownLatch release = new CountDownLatch( 1 );
+        final WeatherData first = new WeatherData( "Sunny", 20, 50 );
+        final WeatherData second = new WeatherData( "Rain", 12, 90 );
+        WeatherService service = new WeatherService( WeatherService.Execution.FIXED_POOL, 5, 1000, 3000, 10_000, location -> {
+            if ( calls.incrementAndGet() == 1 )
+            {
+                return first;
+            }
+            release.await();
+            return second;
+        }, now::get );
+        try
+        {
+            assertSame( first, service.getWeather( "London" ).get() );
+
+            now.addAndGet( 1500 );
+            // Past the soft TTL: the old value comes back at once while the refresh is blocked
+            for ( int i = 0; i < 10; i++ )
+            {
+                assertTrue( service.getWeather( "London" ).isDone() );
+                assertSame( first, service.getWeather( "London" ).get() );
+            }
+            assertEquals( 2, service.getRefreshes() );
+
+            release.countDown();
+            waitFor( service, "London", second );
+            assertEquals( 2, calls.get() );
+        }
+        finally
+        {
+            service.shutdownService();
+        }
+    }
+
+    public void testFailedRefreshPastHardTtlServesStaleValue() throws Exception
+    {
+        final AtomicLong now = new AtomicLong( 1_000_000 );
+        final AtomicInteger calls = new AtomicInteger();
+        final WeatherData first = new WeatherData( "Sunny", 20, 50 );
+        WeatherService service = new WeatherService( WeatherService.Execution.FIXED_POOL, 5, 1000, 3000, 10_000, location -> {
+            if ( calls.incrementAndGet() == 1 )
+            {
+                return first;
+            }
+            throw new IllegalStateException( "API down" );
+        }, now::get );
+        try
+        {
+            service.getWeather( "London" ).get();
+
+            now.addAndGet( 5000 );
+            assertSame( first, service.getWeather( "London" ).get( 5, TimeUnit.SECONDS ) );
+            assertEquals( 1, service.getRefreshFailures() );
+            assertEquals( 1, service.getStaleServed() );
+
+            // Beyond hard TTL + max stale the entry is gone and the failure reaches the caller
+            now.addAndGet( 10_000 );
+            try
+            {
+                service.getWeather( "London" ).get( 5, TimeUnit.SECONDS );
+                fail( "expected the fetch failure" );
+            }
+            catch ( ExecutionException expected )
+            {
+                assertTrue( expected.getCause() instanceof IllegalStateException );
+            }
+        }
+        finally
+        {
+            service.shutdownService();
+        }
+    }
+
+    public void testVirtualThreadsRunFetchesConcurrentlyAndAnswerHitsInline() throws Exception
+    {
+        final CountDownLatch release = new CountDownLatch( 1 );
+        final WeatherData data = new WeatherData( "Sunny", 20, 50 );
+        WeatherCache cache = new WeatherCache( 2000, TimeUnit.MINUTES.toMillis( 10 ) );
+        cache.addWeatherData( "London", data );
+        final WeatherService service = new WeatherService( WeatherService.Execution.VIRTUAL_THREADS, cache, location -> {
+            release.await();
+            return data;
+        } );
+        try
+        {
+            final List<String> locations = new ArrayList<String>();
+            for ( int i = 0; i < 1000; i++ )
+            {
+                locations.add( "Location" + i );
+            }
+            final Map<String, WeatherData> results = new ConcurrentHashMap<String, WeatherData>();
+            Thread caller = new Thread( () -> {
+                try
+                {
+                    results.putAll( service.getWeather( locations ) );
+                }
+                catch ( Exception e )
+                {
+                    throw new IllegalStateException( e );
+                }
+            } );
+            caller.start();
+
+            // All 1000 fetches are blocked; a hit must not queue behind them
+            Future<WeatherData> hit = service.getWeather( "London" );
+            assertTrue( hit.isDone() );
+            assertSame( data, hit.get() );
+
+            release.countDown();
+            caller.join( 10_000 );
+            assertEquals( 1000, results.size() );
+            assertEquals( 1000, service.getRefreshes() );
+        }
+        finally
+        {
+            service.shutdownService();
+        }
+    }
+
+    public void testBatchingCombinesMissesIntoFullAndWindowedBatches() throws Exception
+    {
+        final List<Integer> batchSizes = new ArrayList<Integer>();
+        WeatherService service = new WeatherService( WeatherService.Execution.FIXED_POOL,
+            new WeatherCache( 100, TimeUnit.MINUTES.toMillis( 10 ) ), null );
+        service.enableBatching( 50, 10, locations -> {
+            synchronized ( batchSizes )
+            {
+                batchSizes.add( locations.size() );
+            }
+            Map<String, WeatherData> results = new HashMap<String, WeatherData>();
+            for ( String location : locations )
+            {
+                if ( !location.equals( "Atlantis" ) )
+                {
+                    results.put( location, new WeatherData( location, 20, 50 ) );
+                }
+            }
+            return results;
+        } );
+        try
+        {
+            List<String> locations = new ArrayList<String>();
+            for ( int i = 0; i < 25; i++ )
+            {
+                locations.add( "Location" + i );
+            }
+            Map<String, WeatherData> results = service.getWeather( locations );
+            assertEquals( 25, results.size() );
+            // Two full batches sent at once, the last 5 when the window closes
+            assertEquals( 3, service.getApiCalls() );
+            assertEquals( 25, batchSizes.get( 0 ) + batchSizes.get( 1 ) + batchSizes.get( 2 ) );
+            assertTrue( batchSizes.contains( 5 ) );
+
+            // Now cached: no further API calls
+            service.getWeather( locations );
+            assertEquals( 3, service.getApiCalls() );
+
+            try
+            {
+                service.getWeather( "Atlantis" ).get( 5, TimeUnit.SECONDS );
+                fail( "expected a failure for a location missing from the batch result" );
+            }
+            catch ( ExecutionException expected )
+            {
+                assertTrue( expected.getCause() instanceof IllegalStateException );
+            }
+        }
+        finally
+        {
+            service.shutdownService();
+        }
+    }
+
+    private static void waitFor( WeatherService service, String location, WeatherData expected ) throws Exception
+    {
+        long deadline = System.currentTimeMillis() + 5000;
+        while ( service.getWeather( location ).get() != expected )
+        {
+            assertTrue( "refresh never landed", System.currentTimeMillis() < deadline );
+            Thread.sleep( 10 );
+        }
+    }
+}
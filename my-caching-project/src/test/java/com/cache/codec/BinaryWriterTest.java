@@ -0,0 +1,74 @@
+package com.cache.codec;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import com.cache.DocumentCache.DetailDocumentCache.Document;
+import com.cache.DocumentCache.DocumentCodec;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test for BinaryWriter and BinaryReader.
+ */
+public class BinaryWriterTest extends TestCase
+{
+    public void testStringsMatchJdkUtf8()
+    {
+        String[] values = { "", "ascii", "café", "€ 100", "emoji 😀", "lone \ud83d surrogate" };
+        for ( String value : values )
+        {
+            byte[] encoded = BinaryWriter.get().putString( value ).toByteArray();
+            byte[] expected = value.getBytes( StandardCharsets.UTF_8 );
+
+            ByteBuffer buffer = ByteBuffer.wrap( encoded );
+            assertEquals( expected.length, buffer.getInt() );
+            byte[] body = new byte[buffer.remaining()];
+            buffer.get( body );
+            assertEquals( new String( expected, StandardCharsets.UTF_8 ), new String( body, StandardCharsets.UTF_8 ) );
+        }
+    }
+
+    public void testBufferGrowsForLargeValues()
+    {
+        StringBuilder large = new StringBuilder();
+        for ( int i = 0; i < 100000; i++ )
+        {
+            large.append( (char) ( 'a' + i % 26 ) );
+        }
+        byte[] encoded = BinaryWriter.get().putString( large.toString() ).putLong( 42 ).toByteArray();
+
+        ByteBuffer buffer = ByteBuffer.wrap( encoded );
+        assertEquals( large.toString(), BinaryReader.getString( buffer ) );
+        assertEquals( 42, buffer.getLong() );
+        assertEquals( 0, BinaryWriter.get().size() );
+    }
+
+    public void testDocumentRoundTripFromReadOnlyBuffer() throws IOException
+    {
+        DocumentCodec codec = new DocumentCodec();
+        Document document = new Document( "Docé1", "Content €", 1L, 2L );
+        ByteBuffer readOnly = ByteBuffer.wrap( codec.encode( document ) ).asReadOnlyBuffer();
+
+        Document decoded = codec.decode( readOnly );
+
+        assertEquals( "Docé1", decoded.getDocumentId() );
+        assertEquals( "Content €", decoded.getContent() );
+        assertEquals( 1L, decoded.getTimestamp() );
+        assertEquals( 2L, decoded.getLastModifiedTime() );
+    }
+
+    public void testTruncatedRecordIsRejected()
+    {
+        byte[] encoded = new DocumentCodec().encode( new Document( "id", "content", 1L, 2L ) );
+        try
+        {
+            new DocumentCodec().decode( ByteBuffer.wrap( encoded, 0, encoded.length - 4 ) );
+            fail( "Expected IOException" );
+        }
+        catch ( IOException expected )
+        {
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.cache.tiered;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.cache.LogStore.BoundedLogStore;
+import com.cache.codec.Codec;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test for TieredCache.
+ */
+public class TieredCacheTest extends TestCase
+{
+    public void testExclusiveStackDemotesAndPromotes()
+    {
+        TieredCache<Integer, String> cache = TieredCache.<Integer, String>builder()
+            .tier( new HeapTier<Integer, String>( "l1", 2 ) )
+            .tier( new HeapTier<Integer, String>( "l2", 3 ) )
+            .inclusion( TieredCache.Inclusion.EXCLUSIVE )
+            .build();
+        for ( int i = 0; i < 5; i++ )
+        {
+            cache.put( i, "v" + i );
+        }
+        assertEquals( 2, cache.tiers().get( 0 ).size() );
+        assertEquals( 3, cache.tiers().get( 1 ).size() );
+
+        assertEquals( "v0", cache.get( 0 ) );
+
+        // Promoted to l1; l1's LRU entry went down to l2 in its place
+        assertEquals( 1, cache.stats().get( 1 ).hits() );
+        assertEquals( "v0", cache.tiers().get( 0 ).get( 0 ) );
+        assertNull( cache.tiers().get( 1 ).get( 0 ) );
+        assertEquals( 5, cache.tiers().get( 0 ).size() + cache.tiers().get( 1 ).size() );
+        assertEquals( 0, cache.stats().get( 1 ).evictions() );
+    }
+
+    public void testInclusiveStackKeepsCopiesBelow()
+    {
+        TieredCache<Integer, String> cache = TieredCache.<Integer, String>builder()
+            .tier( new HeapTier<Integer, String>( "l1", 1 ) )
+            .tier( new OffHeapTier<Integer, String>( "l2", 1024, new StringCodec() ) )
+            .build();
+        cache.put( 1, "one" );
+        cache.put( 2, "two" );
+
+        assertNull( cache.tiers().get( 0 ).get( 1 ) );
+        assertEquals( "one", cache.get( 1 ) );
+        assertEquals( "one", cache.tiers().get( 0 ).get( 1 ) );
+        assertEquals( "one", cache.tiers().get( 1 ).get( 1 ) );
+        assertEquals( 1, cache.stats().get( 0 ).misses() );
+        assertEquals( 1, cache.stats().get( 0 ).promotions() );
+    }
+
+    public void testOffHeapTierEvictsByBytes()
+    {
+        OffHeapTier<Integer, String> tier = new OffHeapTier<Integer, String>( "off-heap", 10, new StringCodec() );
+        final int[] evicted = new int[1];
+        for ( int i = 0; i < 5; i++ )
+        {
+            tier.put( i, "abcd", ( key, value ) -> evicted[0]++ );
+        }
+        assertEquals( 2, tier.size() );
+        assertEquals( 8, tier.usedBytes() );
+        assertEquals( 3, evicted[0] );
+        assertEquals( "abcd", tier.get( 4 ) );
+    }
+
+    public void testDiskTierReportsEvictions() throws IOException
+    {
+        Path directory = Files.createTempDirectory( "disk-tier-test" );
+        // Each record is 15 bytes of header, a 1 byte key and 8 + 4 bytes of value
+        BoundedLogStore store = new BoundedLogStore( directory, 28 * 2, 0 );
+        DiskTier<Integer, String> tier = new DiskTier<Integer, String>( "disk", store, new StringCodec(), Integer::valueOf );
+        final List<Integer> evictedKeys = new ArrayList<Integer>();
+        final List<String> evictedValues = new ArrayList<String>();
+        for ( int i = 0; i < 5; i++ )
+        {
+            tier.put( i, "abc" + i, ( key, value ) -> {
+                evictedKeys.add( key );
+                evictedValues.add( value );
+            } );
+        }
+        assertEquals( 2, tier.size() );
+        assertEquals( "[0, 1, 2]", evictedKeys.toString() );
+        assertEquals( "[abc0, abc1, abc2]", evictedValues.toString() );
+        assertEquals( "abc4", tier.get( 4 ) );
+
+        tier.close();
+        File[] files = directory.toFile().listFiles();
+        if ( files != null )
+        {
+            for ( File file : files )
+            {
+                file.delete();
+            }
+        }
+        directory.toFile().delete();
+    }
+
+    private static final class StringCodec implements Codec<String>
+    {
+        public byte[] encode( String value )
+        {
+            return value.getBytes( StandardCharsets.UTF_8 );
+        }
+
+        public String decode( ByteBuffer buffer ) throws IOException
+        {
+            byte[] bytes = new byte[buffer.remaining()];
+            buffer.get( bytes );
+            return new String( bytes, StandardCharsets.UTF_8 );
+        }
+    }
+}